@@ -0,0 +1,40 @@
+/*
+ *  AS91907.Benchmarks
+ *  Last Updated: 17/10/2026
+ *  Purpose: Runs the JMH benchmarks, the same as JMH's own main class, but with the GC profiler added unless another profiler is asked for, so every result also shows how much was allocated per operation.
+ *  Usage: java -jar benchmarks/target/benchmarks.jar [JMH options]    For example: TickBenchmark -p engine=Array -p size=256, or -prof stack, or -h for every option
+ */
+
+package as91907;
+
+import java.io.IOException;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+public class Benchmarks {
+    public static void main(String[] args) throws IOException, CommandLineOptionException, RunnerException {
+        CommandLineOptions options = new CommandLineOptions(args); // Reads the usual JMH options
+        if (options.shouldHelp()) {
+            options.showHelp();
+            return;
+        }
+        if (options.shouldList()) {
+            new Runner(options).list();
+            return;
+        }
+        ChainedOptionsBuilder builder = new OptionsBuilder().parent(options);
+        if (options.getProfilers().isEmpty()) builder.addProfiler(GCProfiler.class); // Shows the allocation rate and GC time of each benchmark
+        new Runner(builder.build()).run();
+    }
+
+    static Simulation simulation(String engine, int size, double density) { // Creates a square simulation with the default parameters and a fixed seed, with density agents per cell on average, 1% of them infected
+        int agents = Math.max((int) (size * (double) size * density), 1);
+        int infected = Math.max(agents / 100, 1);
+        return new Simulation(size, size, 16, 32, 0.75, new int[]{agents - infected, infected, 0}, -1, 0, 42, Engine.parse(engine));
+    }
+}
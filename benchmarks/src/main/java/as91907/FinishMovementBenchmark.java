@@ -0,0 +1,51 @@
+/*
+ *  AS91907.FinishMovementBenchmark
+ *  Last Updated: 17/10/2026
+ *  Purpose: Measures the regrouping of agents by cell after they move, which is the counting sort of the array engines.
+ *  The Person engine regroups as each Person moves, so its cost is part of PersonBenchmark.move instead.
+ */
+
+package as91907;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+@State(Scope.Thread)
+public class FinishMovementBenchmark {
+    @Param({"Array", "Parallel"})
+    public String engine;
+    @Param({"256", "1024"})
+    public int size; // Width and height of the grid
+    @Param({"1", "16"})
+    public double density; // Agents per cell
+
+    private Engine e;
+
+    @Setup(Level.Iteration)
+    public void setup() {
+        Simulation s = Benchmarks.simulation(engine, size, density);
+        s.engine.move(); // Leaves the agents out of order, the same as before a real finishMovement
+        e = s.engine;
+    }
+
+    @Benchmark
+    public void finishMovement() { // Sorts the same positions every time
+        e.finishMovement();
+    }
+}
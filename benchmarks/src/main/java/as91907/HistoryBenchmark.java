@@ -0,0 +1,62 @@
+/*
+ *  AS91907.HistoryBenchmark
+ *  Last Updated: 17/10/2026
+ *  Purpose: Measures exporting the CSV history, writing a whole file of ROWS rows each time through HistoryWriter. The results are per row.
+ */
+
+package as91907;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+@State(Scope.Thread)
+public class HistoryBenchmark {
+    private static final int ROWS = 100_000; // Rows in each file
+
+    private Simulation s; // Only used for its counts, which are changed for each row
+    private File file;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        s = Benchmarks.simulation("Array", 16, 1);
+        file = File.createTempFile("history", ".csv");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        file.delete();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void export() throws IOException {
+        HistoryWriter writer = new HistoryWriter(s, file);
+        for (int i = 0; i < ROWS; i++) { // Counts that change by different amounts each row, with numbers of different lengths
+            s.count[0] = 65536 - (i & 4095);
+            s.count[1] = (i * 7) & 65535;
+            s.count[2] = i;
+            writer.ticked(s);
+        }
+        writer.done(s);
+        if (writer.error != null) throw writer.error;
+    }
+}
@@ -0,0 +1,55 @@
+/*
+ *  AS91907.PersonBenchmark
+ *  Last Updated: 17/10/2026
+ *  Purpose: Measures the phases of the Person engine on their own, with one agent per cell and with dense cells, where the sorted lists are long.
+ *  move includes Person.reposition, which inserts each Person into the sorted list of its new cell, and finishMovement, which swaps the lists in.
+ */
+
+package as91907;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+@State(Scope.Thread)
+public class PersonBenchmark {
+    private static final int WARM_TICKS = 20; // Ticks run before measuring, so the infection has spread and every state is mixed together in the lists
+
+    @Param({"1", "16"})
+    public double density; // Agents per cell
+
+    private Engine engine;
+
+    @Setup(Level.Iteration)
+    public void setup() {
+        Simulation s = Benchmarks.simulation("Person", 256, density);
+        for (int i = 0; i < WARM_TICKS; i++) s.tick();
+        engine = s.engine;
+    }
+
+    @Benchmark
+    public void spread() { // Only sets who will become infected, so it can run again on the same state
+        engine.spread();
+    }
+
+    @Benchmark
+    public void move() {
+        engine.move();
+        engine.finishMovement();
+    }
+}
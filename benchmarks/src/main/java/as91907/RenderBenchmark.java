@@ -0,0 +1,70 @@
+/*
+ *  AS91907.RenderBenchmark
+ *  Last Updated: 17/10/2026
+ *  Purpose: Measures drawing the visualisation, both the usual render of the cells that changed in a tick, and a full redraw, as when it is resized or a colour changes.
+ *  Draws into a VisualisationImage the size of a WINDOW pixel window, at the level of its Pyramid that fits, the same as VisualisationRender, so grids bigger than the window are drawn from a smaller level. Needs no window, so it runs headless.
+ */
+
+package as91907;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+@State(Scope.Thread)
+public class RenderBenchmark {
+    private static final int WINDOW = 1024; // Width and height of the window being drawn in
+
+    @Param({"256", "1024", "4096"})
+    public int size; // Width and height of the grid
+
+    private Simulation s;
+    private Frame frame;
+    private Pyramid pyramid;
+    private VisualisationImage image;
+
+    @Setup(Level.Iteration)
+    public void setup() {
+        s = Benchmarks.simulation("Array", size, 1);
+        frame = new Frame(s);
+        pyramid = frame.pyramid;
+        int level = pyramid.level(WINDOW, WINDOW), cells = Math.max(WINDOW / pyramid.width[level], 1);
+        image = new VisualisationImage(pyramid, pyramid.width[level] * cells, pyramid.height[level] * cells);
+        image.view(level, cells, cells, 0, 0);
+        image.render(); // Draws every cell, clearing the changed bits
+    }
+
+    @Setup(Level.Invocation)
+    public void tick() { // Runs a tick and publishes it, so the next render has that tick's changed cells to draw. Takes longer than the render, but isn't measured
+        s.tick();
+        frame.wanted = true;
+        frame.publish(s);
+    }
+
+    @Benchmark
+    public void render() { // Includes bringing the pyramid up to date, as VisualisationRender does before each render
+        pyramid.update();
+        image.render();
+    }
+
+    @Benchmark
+    public void redraw() {
+        pyramid.update();
+        image.redraw();
+    }
+}
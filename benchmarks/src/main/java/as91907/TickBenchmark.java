@@ -0,0 +1,49 @@
+/*
+ *  AS91907.TickBenchmark
+ *  Last Updated: 17/10/2026
+ *  Purpose: Measures a full tick of each engine at several grid sizes and densities. Each iteration starts again from the same seed, so every run measures the same ticks.
+ */
+
+package as91907;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Djava.awt.headless=true", "--add-modules", "jdk.incubator.vector"}) // With the Vector API, so the array engines update the way they would in use with it
+@State(Scope.Thread)
+public class TickBenchmark {
+    @Param({"Person", "Array", "Parallel", "Wheel"})
+    public String engine;
+    @Param({"64", "256", "1024"})
+    public int size; // Width and height of the grid
+    @Param({"0.01", "0.25", "1", "4"})
+    public double density; // Agents per cell. Below Engine.SPARSE_DENSITY, the Person and Array engines store the grid sparsely
+
+    private Simulation s;
+
+    @Setup(Level.Iteration)
+    public void setup() {
+        s = Benchmarks.simulation(engine, size, density);
+    }
+
+    @Benchmark
+    public long tick() {
+        s.tick();
+        return s.elapsed;
+    }
+}
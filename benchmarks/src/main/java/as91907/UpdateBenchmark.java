@@ -0,0 +1,56 @@
+/*
+ *  AS91907.UpdateBenchmark
+ *  Last Updated: 17/10/2026
+ *  Purpose: Measures the state update and tally of the array engines, with VectorUpdate and with the scalar update, so the two can be compared in the same run.
+ */
+
+package as91907;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Djava.awt.headless=true", "--add-modules", "jdk.incubator.vector"}) // VectorUpdate can only be used with the module added
+@State(Scope.Thread)
+public class UpdateBenchmark {
+    @Param({"Array", "Parallel"})
+    public String engine;
+    @Param({"256", "1024"})
+    public int size; // Width and height of the grid
+    @Param({"1", "16"})
+    public double density; // Agents per cell
+    @Param({"true", "false"})
+    public boolean vector; // Whether to use VectorUpdate
+
+    private ArrayEngine e;
+    private final int[] count = new int[3];
+
+    @Setup(Level.Iteration)
+    public void setup() {
+        Simulation s = Benchmarks.simulation(engine, size, density);
+        for (int i = 0; i < 20; i++) s.tick(); // Spreads the infection, so there is a mix of states
+        e = (ArrayEngine) s.engine;
+        if (vector && !ArrayEngine.VECTOR) throw new IllegalStateException("The Vector API isn't available");
+        e.vector = vector;
+    }
+
+    @Benchmark
+    public int update() { // Only the first update of an iteration has infections to apply, the rest advance the states and tally them
+        e.update(count);
+        return count[0];
+    }
+}
@@ -0,0 +1,252 @@
+/*
+ *  AS91907.ArrayEngine
+ *  Last Updated: 17/10/2026
+ *  Purpose: An Engine that stores the agents in primitive arrays instead of Person objects, grouping them by cell with a counting sort each tick. Follows the same rules as Person.
+ */
+
+package as91907;
+
+import java.util.Arrays;
+
+public class ArrayEngine extends Engine {
+    protected final int agents; // Number of agents in the simulation
+    protected final int cells; // Number of cells in the grid, or 0 on a sparse grid, which only has ranges for the occupied cells
+    // Agent i is stored at index i of each of these
+    protected final int[] x, y; // Positions
+    protected final int[] state; // Internal states, the same as Person.state
+    protected final long[] pending; // Bit i is set if agent i will become infected this round, the same as Person.infected
+    protected final Rng random; // Random numbers for the phases, seeded from the simulation's seed
+
+    static final boolean VECTOR = ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent(); // Whether the Vector API was added to the JVM, with --add-modules jdk.incubator.vector
+    public boolean vector = VECTOR; // Whether update uses VectorUpdate. Only true when the Vector API is available, as VectorUpdate can't be loaded otherwise
+
+    // The agents in cell c are order[start[c]] to order[start[c + 1] - 1], where c = x * HEIGHT + y, the same order as Person[x][y]
+    // On a sparse grid, c is instead the index of the cell among the occupied cells, in order
+    protected int[] order;
+    protected int[] start;
+
+    // Only on a sparse grid, null otherwise
+    protected final CellMap map; // The slots of the occupied cells
+    private final int[] group; // The index of the cell in each slot among the occupied cells, which its range of start is at
+    private final int[] grouped; // The index of each agent's cell among the occupied cells, while sorting
+
+    public ArrayEngine(Simulation s, int[] startingCount, boolean sparse) {
+        super(s);
+        agents = startingCount[Main.NORMAL] + startingCount[Main.INFECTED] + startingCount[Main.IMMUNE];
+        cells = sparse ? 0 : s.WIDTH * s.HEIGHT;
+        x = new int[agents];
+        y = new int[agents];
+        state = new int[agents];
+        pending = new long[(agents + 63) >> 6];
+        order = new int[agents];
+        start = new int[(sparse ? agents : cells) + 1]; // There can't be more occupied cells than agents
+        map = sparse ? new CellMap(agents, (long) s.WIDTH * s.HEIGHT) : null;
+        group = sparse ? new int[map.slots] : null;
+        grouped = sparse ? new int[agents] : null;
+        random = new Rng(s.SEED);
+
+        // Creates the agents in the order NORMAL, INFECTED, IMMUNE, the same as PersonEngine
+        int i = 0;
+        for (char j = 0; j < 3; j++) {
+            int initial = switch (j) { // The internal state they start with
+                case Main.NORMAL -> 0;
+                case Main.INFECTED -> 1;
+                case Main.IMMUNE -> s.INFECTION_COOLDOWN + 1;
+                default -> throw new IllegalStateException();
+            };
+            for (int k = 0; k < startingCount[j]; k++, i++) {
+                // Randomises the position
+                x[i] = random.nextInt(s.WIDTH);
+                y[i] = random.nextInt(s.HEIGHT);
+                state[i] = initial;
+            }
+        }
+        sort(); // Groups everything by cell for the simulation to start
+    }
+
+    public ArrayEngine(Simulation s, Checkpoint c, boolean sparse) { // Restores the agents of a checkpoint, in the same order
+        super(s);
+        agents = c.agents;
+        cells = sparse ? 0 : s.WIDTH * s.HEIGHT;
+        x = new int[agents];
+        y = new int[agents];
+        state = c.state.clone();
+        pending = new long[(agents + 63) >> 6]; // Always empty between ticks
+        order = c.order.clone();
+        start = new int[(sparse ? agents : cells) + 1];
+        map = sparse ? new CellMap(agents, (long) s.WIDTH * s.HEIGHT) : null;
+        group = sparse ? new int[map.slots] : null;
+        grouped = sparse ? new int[agents] : null;
+        random = new Rng(c.seeds[0]);
+        for (int i = 0; i < agents; i++) {
+            x[i] = (int) (c.cell[i] / s.HEIGHT);
+            y[i] = (int) (c.cell[i] % s.HEIGHT);
+            if (sparse) map.slot(c.cell[i]); // Gives every occupied cell a slot
+        }
+        if (sparse) number();
+        for (int i = 0; i < agents; i++) start[(sparse ? group[map.find(c.cell[i])] : (int) c.cell[i]) + 1] ++; // Counts the agents in each cell
+        for (int cell = 1; cell < start.length; cell++) start[cell] += start[cell - 1]; // Turns the counts into the start of each cell's range
+    }
+
+    protected final char state(int i) { // Converts the internal state of agent i to an external state, the same as Person.state()
+        int st = state[i];
+        if (st == 0) return Main.NORMAL;
+        if (st <= s.INFECTION_COOLDOWN) return Main.INFECTED;
+        return Main.IMMUNE;
+    }
+
+    @Override
+    public void spread() {
+        spread(0, map == null ? cells : map.size, random);
+    }
+    protected void spread(int from, int to, Rng random) { // Spreads infections in cells from (inclusive) to to (exclusive)
+        // Counts the infected agents in a cell, then each normal agent in the same cell has a single chance to be set to become infected by any of them
+        final int infectionCooldown = s.INFECTION_COOLDOWN;
+        for (int c = from; c < to; c++) {
+            int first = start[c], last = start[c + 1];
+            if (last - first < 2) continue; // Nobody to infect
+            int infected = 0;
+            for (int j = first; j < last; j++) {
+                int st = state[order[j]];
+                if (st != 0 && st <= infectionCooldown) infected ++;
+            }
+            if (infected == 0) continue; // Nobody to spread
+            double chance = chance(infected);
+            for (int j = first; j < last; j++) {
+                int other = order[j];
+                if (state[other] == 0 && random.nextDouble() < chance) infect(other); // Sets normal agents to become infected on a hit
+            }
+        }
+    }
+
+    protected void infect(int i) { // Sets the pending bit of agent i
+        pending[i >> 6] |= 1L << i;
+    }
+
+    @Override
+    public void move() {
+        move(0, agents, random);
+    }
+    protected void move(int from, int to, Rng random) { // Moves agents from (inclusive) to to (exclusive) in a random direction, the same as Person.move()
+        final int width = s.WIDTH, height = s.HEIGHT;
+        final boolean tracking = dirty != null;
+        for (int i = from; i < to; i++) {
+            byte[] moves = MOVES[edges(x[i], y[i], width, height)]; // Looks up the moves that are possible from here
+            byte move = moves[random.nextInt(moves.length)]; // Picks a random movement choice out of the available options
+            if (move == 0) continue; // Stay still
+            if (tracking) mark(x[i], y[i]); // Marks the cell being left as changed
+            switch (move) {
+                                   // Stay still
+                case 1 -> y[i] --; // Move up
+                case 2 -> x[i] --; // Move left
+                case 3 -> y[i] ++; // Move down
+                case 4 -> x[i] ++; // Move right
+            }
+            if (tracking) mark(x[i], y[i]); // Marks the cell being entered as changed
+        }
+    }
+
+    @Override
+    public void finishMovement() {
+        sort();
+    }
+    private void sort() { // Counting sort of the agents by cell
+        if (map != null) {
+            sortSparse();
+            return;
+        }
+        final int height = s.HEIGHT;
+        Arrays.fill(start, 0);
+        for (int i = 0; i < agents; i++) start[x[i] * height + y[i]] ++; // Counts the agents in each cell
+        for (int c = 1; c < cells; c++) start[c] += start[c - 1]; // Turns the counts into the end of each cell's range
+        start[cells] = agents;
+        for (int i = agents - 1; i >= 0; i--) order[-- start[x[i] * height + y[i]]] = i; // Places each agent, moving each cell's end back to its start
+    }
+
+    private void sortSparse() { // The same counting sort, by the index of each agent's cell among the occupied cells, so it never goes through the empty cells
+        final long height = s.HEIGHT;
+        map.clear();
+        for (int i = 0; i < agents; i++) grouped[i] = map.slot(x[i] * height + y[i]); // Gives every occupied cell a slot
+        number();
+        final int groups = map.size;
+        Arrays.fill(start, 0, groups + 1, 0);
+        for (int i = 0; i < agents; i++) start[grouped[i] = group[grouped[i]]] ++; // Counts the agents in each cell
+        for (int g = 1; g < groups; g++) start[g] += start[g - 1]; // Turns the counts into the end of each cell's range
+        start[groups] = agents;
+        for (int i = agents - 1; i >= 0; i--) order[-- start[grouped[i]]] = i; // Places each agent, moving each cell's end back to its start
+    }
+    private void number() { // Numbers the occupied cells in order
+        map.sort();
+        for (int g = 0; g < map.size; g++) group[map.used[g]] = g;
+    }
+
+    @Override
+    public void update(int[] count) {
+        s.infections += update(0, agents, count);
+    }
+    protected int update(int from, int to, int[] count) { // Updates the states of agents from (inclusive) to to (exclusive), the same as Person.update(), adding them to count. Returns the number of new infections.
+        return vector ? VectorUpdate.update(this, from, to, count) : updateScalar(from, to, count);
+    }
+    protected int updateScalar(int from, int to, int[] count) { // The update one agent at a time, for when the Vector API isn't available, and for the agents either side of VectorUpdate's whole vectors
+        final int infectionCooldown = s.INFECTION_COOLDOWN, immunityCooldown = s.IMMUNITY_COOLDOWN;
+        final boolean tracking = dirty != null;
+        int normal = 0, infected = 0, immune = 0, infections = 0;
+        for (int i = from; i < to; i++) {
+            int st = state[i];
+            long bit = 1L << i;
+            boolean changed = false; // Whether the external state changed
+            if ((pending[i >> 6] & bit) != 0) { // If we have been infected
+                pending[i >> 6] &= ~bit; // Reset the flag
+                st = 1; // Start of infected
+                infections ++;
+                changed = true;
+            } else if (st > 0) { // Otherwise, if we are not NORMAL
+                st ++;
+                if (st > immunityCooldown) st = 0; // If we have reached the end of our immunity, reset to NORMAL
+                changed = st == 0 || st == infectionCooldown + 1; // Changed if we just became NORMAL or IMMUNE
+            }
+            state[i] = st;
+            if (changed && tracking) mark(x[i], y[i]);
+            // Tallies the new state
+            if (st == 0) normal ++;
+            else if (st <= infectionCooldown) infected ++;
+            else immune ++;
+        }
+        count[0] += normal;
+        count[1] += infected;
+        count[2] += immune;
+        return infections;
+    }
+
+    @Override
+    public void save(Checkpoint c) { // Saves every agent by index, and the order within each cell, which the parallel sort doesn't keep by index
+        final int height = s.HEIGHT;
+        for (int i = 0; i < agents; i++) c.cell[i] = (long) x[i] * height + y[i];
+        System.arraycopy(state, 0, c.state, 0, agents);
+        System.arraycopy(order, 0, c.order, 0, agents);
+        c.seeds = seeds();
+    }
+
+    protected long[] seeds() { // Returns the seeds of every random number generator
+        return new long[]{random.seed};
+    }
+
+    @Override
+    public char renderedState(int x, int y) {
+        char rendered = Main.EMPTY;
+        int c = x * s.HEIGHT + y;
+        if (map != null) { // Finds the cell among the occupied cells
+            int slot = map.find((long) x * s.HEIGHT + y);
+            if (slot < 0) return rendered; // Nobody there
+            c = group[slot];
+        }
+        for (int j = start[c]; j < start[c + 1]; j++) { // Loops through all agents at that cell, keeping the highest priority state
+            switch (state(order[j])) {
+                case Main.INFECTED -> { return Main.INFECTED; } // Highest priority, nothing can beat it
+                case Main.NORMAL -> rendered = Main.NORMAL;
+                case Main.IMMUNE -> { if (rendered == Main.EMPTY) rendered = Main.IMMUNE; }
+            }
+        }
+        return rendered;
+    }
+}
@@ -0,0 +1,250 @@
+/*
+ *  AS91907.Batch
+ *  Last Updated: 17/10/2026
+ *  Purpose: A static class that runs a single simulation from the command line, without any GUI, as fast as possible. Streams the counts of each tick to a CSV file as it runs. Also reads the command line options for Ensemble.
+ *  Usage: java as91907.Batch [--width 256] [--height 256] [--infection-duration 16] [--immunity-duration 32] [--infection-chance 0.75]
+ *                    [--normal-count 65535] [--infection-count 1] [--immunity-count 0] [--ticks -1] [--tick-speed 0] [--seed random] [--engine Person|Array|Parallel|Wheel|OffHeap|Cluster] [--output simulation[ID].csv]
+ *                    [--trace file] [--keyframes 256]    Also records every cell of every tick to a trace file, which can be played with Replay
+ *                    [--record directory] [--record-every 1] [--encoders cores]    Also records the visualisation of every so many ticks to numbered PNGs, encoded on a pool of threads, dropping frames if they can't keep up
+ *                    [--checkpoint file] [--checkpoint-interval 60]    Also saves a checkpoint every so many seconds, and when done
+ *         java as91907.Batch --restore file [--ticks remaining] [--output] [--trace] [--checkpoint] [--metrics]    Carries on from a checkpoint, with the same parameters and seed
+ *                    [--metrics seconds]    Also shows the time of each phase and the speed over JMX, and prints them every so many seconds unless 0
+ *         java as91907.Batch [parameters] --workers N [--port 0] [--bind address]    Splits the grid between N Worker processes, started on this machine and only reachable from it, or waited for on the port if it is given
+ *                    Workers aren't authenticated, so a port is reachable by anyone on the network unless it is bound to a single address, and should only be given on a trusted one
+ *         java as91907.Batch [parameters] --check-allocation N    Warms up for N ticks, then fails if the next N ticks allocate anything on the heap
+ */
+
+package as91907;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import com.sun.management.ThreadMXBean;
+import java.lang.management.ManagementFactory;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.HashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+public class Batch {
+    private static final HashMap<String, String> options = new HashMap<>(); // Stores each option given on the command line, without the leading "--"
+
+    public static void main(String[] args) {
+        parse(args);
+        String restore = read("restore");
+        Simulation s = null;
+        if (restore != null) { // Carries on from a checkpoint, which has every parameter of the simulation, so only the number of ticks can be changed
+            Checkpoint checkpoint = null;
+            try {
+                checkpoint = Checkpoint.read(new File(restore));
+            } catch (IOException e) {
+                fail("Could not read " + restore + ": " + e.getMessage());
+            }
+            checkpoint.ticks = readInt("ticks", checkpoint.ticks, -1);
+            try {
+                s = new Simulation(checkpoint);
+            } catch (IllegalArgumentException e) { // If the grid is too big for the engine
+                fail(e.getMessage());
+            }
+        } else {
+            // Reads the parameters, with the same defaults and limits as the launcher's panels
+            int width = readInt("width", 256, 1);
+            int height = readInt("height", 256, 1);
+            int infectionDuration = readInt("infection-duration", 16, 1);
+            int immunityDuration = readInt("immunity-duration", 32, 0);
+            double infectionChance = readDouble("infection-chance", 0.75, 0, 1);
+            int[] startingCount = new int[]{
+                    readInt("normal-count", 65535, 0),
+                    readInt("infection-count", 1, 1),
+                    readInt("immunity-count", 0, 0)
+            };
+            int ticks = readInt("ticks", -1, -1);
+            int tickSpeed = readInt("tick-speed", 0, 0);
+            long seed = readSeed();
+            int workers = readInt("workers", 0, 0); // 0 for no workers
+            int port = readInt("port", 0, 1);
+            String bind = read("bind"); // Null for every address
+            if (bind != null && port == 0) fail("--bind can only be used with --port, as workers started on this machine are only reachable from it");
+            InetAddress address = null;
+            if (bind != null) try {
+                address = InetAddress.getByName(bind);
+            } catch (UnknownHostException e) {
+                fail("Unknown address " + bind);
+            }
+            char engine = readEngine(workers > 0 ? Engine.CLUSTER : Engine.PERSON);
+            if (workers > 0 && engine != Engine.CLUSTER) fail("--workers can only be used with the Cluster engine");
+            if (port > 0) System.out.println("Waiting for " + workers + " workers on port " + port + (bind == null ? "" : " of " + bind));
+            try {
+                if (engine == Engine.CLUSTER && workers > 0) s = new Simulation(width, height, infectionDuration, immunityDuration, infectionChance, startingCount, ticks, tickSpeed, seed, workers, port, address);
+                else s = new Simulation(width, height, infectionDuration, immunityDuration, infectionChance, startingCount, ticks, tickSpeed, seed, engine);
+            } catch (IllegalArgumentException | UncheckedIOException e) { // If the grid is too big for the engine, or the workers couldn't start
+                fail(e.getMessage());
+            }
+        }
+        String output = read("output");
+        String trace = read("trace");
+        int keyframes = readInt("keyframes", TraceWriter.KEYFRAMES, 1);
+        String record = read("record");
+        int recordEvery = readInt("record-every", 1, 1);
+        int encoders = readInt("encoders", Runtime.getRuntime().availableProcessors(), 1);
+        String save = read("checkpoint");
+        if (save != null && s.ENGINE == Engine.CLUSTER) fail("A Cluster simulation can't be checkpointed");
+        int checkpointInterval = readInt("checkpoint-interval", 60, 0);
+        int metrics = readInt("metrics", -1, 0); // Seconds between log lines, 0 for only JMX, or -1 for no metrics
+        int check = readInt("check-allocation", 0, 0);
+        finish();
+
+        if (check > 0) {
+            checkAllocation(s, check);
+            return;
+        }
+        File file = new File(output == null ? "simulation" + s.ID + ".csv" : output); // Defaults to simulation[ID].csv, like the GUI
+        HistoryWriter writer = null;
+        try {
+            writer = new HistoryWriter(s, file);
+        } catch (IOException e) {
+            fail("Could not write " + file + ": " + e.getMessage());
+        }
+        s.addObserver(writer);
+        TraceWriter tracer = null;
+        if (trace != null) try {
+            tracer = new TraceWriter(s, new File(trace), keyframes);
+            s.addObserver(tracer);
+        } catch (IOException | IllegalArgumentException e) { // Including if the grid is too big to trace
+            fail("Could not write " + trace + ": " + e.getMessage());
+        }
+        Recorder recorder = null;
+        if (record != null) try {
+            recorder = new Recorder(s, new File(record), recordEvery, encoders);
+            s.addObserver(recorder);
+        } catch (IOException | IllegalArgumentException e) { // Including if the cells can't be watched
+            fail("Could not record to " + record + ": " + e.getMessage());
+        }
+        Checkpointer checkpointer = null;
+        if (save != null) {
+            checkpointer = new Checkpointer(s, new File(save), checkpointInterval * 1000L);
+            s.addObserver(checkpointer);
+        }
+
+        if (metrics >= 0) new Metrics(s, metrics);
+
+        long first = s.elapsed; // Not 0 if restored
+        long start = System.nanoTime();
+        try {
+            s.run(); // Runs the simulation on this thread
+        } catch (UncheckedIOException e) { // If a worker was lost
+            fail(e.getMessage());
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        long ran = s.elapsed - first;
+
+        System.out.printf("Simulation %d (%s, seed %d): %d ticks in %.3f s (%.1f ticks/s), %d infections%n", s.ID, Engine.NAMES[s.ENGINE], s.SEED, ran, seconds, ran / seconds, s.infections);
+        if (recorder != null) System.out.printf("Recorded %d frames to %s, dropping %d that the encoders couldn't keep up with%n", recorder.recorded, record, recorder.dropped);
+        if (writer.error != null) fail("Could not write " + file + ": " + writer.error.getMessage());
+        if (tracer != null && tracer.error != null) fail("Could not write " + trace + ": " + tracer.error.getMessage());
+        if (recorder != null && recorder.error != null) fail("Could not record to " + record + ": " + recorder.error.getMessage());
+        if (checkpointer != null && checkpointer.error != null) fail("Could not write " + save + ": " + checkpointer.error.getMessage());
+    }
+
+    private static void checkAllocation(Simulation s, int ticks) { // Runs ticks until warmed up, then fails if the same number of ticks allocate any bytes on any thread
+        ThreadMXBean bean = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+        for (int i = 0; i < ticks; i++) s.tick(); // Warms up, so everything is compiled and every thread has been started
+        long[] threads = bean.getAllThreadIds(); // Gets the threads before measuring, as getting them allocates
+        long before = allocated(bean, threads);
+        for (int i = 0; i < ticks; i++) s.tick();
+        long bytes = allocated(bean, threads) - before;
+        System.out.printf("Simulation %d (%s): %d bytes allocated over %d warmed up ticks (%.1f bytes/tick)%n", s.ID, s.engine.getClass().getSimpleName(), bytes, ticks, (double) bytes / ticks);
+        if (bytes > 0) fail("Ticks should not allocate once warmed up");
+    }
+
+    private static long allocated(ThreadMXBean bean, long[] threads) { // Returns the total bytes allocated by the given threads
+        long total = 0;
+        for (long thread : threads) total += Math.max(bean.getThreadAllocatedBytes(thread), 0); // -1 if the thread has finished
+        return total;
+    }
+
+    static void parse(String[] args) { // Reads the arguments in pairs of "--name value"
+        for (int i = 0; i < args.length; i += 2) {
+            if (!args[i].startsWith("--") || i + 1 == args.length) fail("Expected \"--name value\", got \"" + args[i] + "\"");
+            options.put(args[i].substring(2), args[i + 1]);
+        }
+    }
+
+    static void finish() { // Fails if any options weren't read, as they were not recognised
+        if (!options.isEmpty()) fail("Unknown option --" + options.keySet().iterator().next());
+    }
+
+    static String read(String name) { // Reads an option as text, returning null if it wasn't given
+        return options.remove(name);
+    }
+
+    static int[] readInts(String name, int auto, int min) { // Reads a comma separated list of integers, returning just auto if it wasn't given
+        String text = options.get(name);
+        if (text == null) return new int[]{auto};
+        String[] parts = text.split(",");
+        int[] values = new int[parts.length];
+        for (int i = 0; i < parts.length; i++) {
+            options.put(name, parts[i].strip()); // Reads each one as if it were given alone
+            values[i] = readInt(name, auto, min);
+        }
+        return values;
+    }
+
+    static double[] readDoubles(String name, double auto, double min, double max) { // Reads a comma separated list of doubles, returning just auto if it wasn't given
+        String text = options.get(name);
+        if (text == null) return new double[]{auto};
+        String[] parts = text.split(",");
+        double[] values = new double[parts.length];
+        for (int i = 0; i < parts.length; i++) {
+            options.put(name, parts[i].strip()); // Reads each one as if it were given alone
+            values[i] = readDouble(name, auto, min, max);
+        }
+        return values;
+    }
+
+    static int readInt(String name, int auto, int min) { // Reads an integer option, returning auto if it wasn't given
+        String text = options.remove(name);
+        if (text == null) return auto;
+        try {
+            int value = Integer.parseInt(text); // Gets the value, throws if invalid
+            if (value >= min) return value; // If it isn't below the minimum, return it
+        } catch (NumberFormatException ignored) {}
+        fail("--" + name + " must be an integer of at least " + min);
+        return auto; // Unreachable, fail exits
+    }
+
+    static double readDouble(String name, double auto, double min, double max) { // Reads a double option, returning auto if it wasn't given
+        String text = options.remove(name);
+        if (text == null) return auto;
+        try {
+            double value = Double.parseDouble(text); // Parses the value, throws if invalid
+            if (min < value && value <= max) return value; // If value inside range, return it
+        } catch (NumberFormatException ignored) {}
+        fail("--" + name + " must be a number above " + min + " and at most " + max);
+        return auto; // Unreachable, fail exits
+    }
+
+    static long readSeed() { // Reads the seed option, picking a random seed if it wasn't given
+        String text = options.remove("seed");
+        if (text == null) return ThreadLocalRandom.current().nextLong();
+        try {
+            return Long.parseLong(text);
+        } catch (NumberFormatException e) {
+            fail("--seed must be an integer");
+            return 0; // Unreachable, fail exits
+        }
+    }
+
+    static char readEngine(char auto) { // Reads the engine option, returning auto if it wasn't given
+        String text = options.remove("engine");
+        if (text == null) return auto;
+        char engine = Engine.parse(text);
+        if (engine == Character.MAX_VALUE) fail("--engine must be one of " + String.join(", ", Engine.NAMES));
+        return engine;
+    }
+
+    static void fail(String message) { // Prints the problem and exits
+        System.err.println(message);
+        System.exit(1);
+    }
+}
@@ -0,0 +1,55 @@
+/*
+ *  AS91907.CellBits
+ *  Last Updated: 17/10/2026
+ *  Purpose: A set of cells, with a bit for each cell, and a summary bit for each word of 64 cells that has any set. Going through the set only looks at the words with bits set, found from the summary, so it costs time for the cells in it, not the size of the grid.
+ */
+
+package as91907;
+
+import java.util.Arrays;
+
+public class CellBits {
+    public final long[] words; // Bit c is set if cell c is in the set
+    public final long[] summary; // Bit w is set if word w of words has any bits set
+
+    public CellBits(long cells) { // Creates an empty set for a grid of the given number of cells
+        words = new long[(int) ((cells + 63) >> 6)];
+        summary = new long[(words.length + 63) >> 6];
+    }
+
+    public void add(int c) { // Adds cell c
+        int word = c >> 6;
+        words[word] |= 1L << c;
+        summary[word >> 6] |= 1L << word;
+    }
+
+    public void add(int word, long bits) { // Adds the cells of a word that have their bits set
+        words[word] |= bits;
+        summary[word >> 6] |= 1L << word;
+    }
+
+    public void fill(long cells) { // Adds every cell of a grid of the given number of cells
+        Arrays.fill(words, -1L);
+        words[words.length - 1] >>>= (int) (-cells & 63); // Bits past the last cell must stay clear
+        Arrays.fill(summary, -1L);
+        summary[summary.length - 1] >>>= -words.length & 63;
+    }
+
+    public int next(int word) { // Returns the first word from word onwards with any bits set, or -1 if there are none
+        int s = word >> 6;
+        if (s >= summary.length) return -1;
+        long bits = summary[s] & (-1L << word); // Leaves out the words before it
+        while (bits == 0) { // Skips 4096 cells at once
+            if (++ s == summary.length) return -1;
+            bits = summary[s];
+        }
+        return (s << 6) + Long.numberOfTrailingZeros(bits);
+    }
+
+    public long take(int word) { // Returns the bits of a word, and clears them
+        long bits = words[word];
+        words[word] = 0;
+        summary[word >> 6] &= ~(1L << word);
+        return bits;
+    }
+}
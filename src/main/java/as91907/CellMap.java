@@ -0,0 +1,88 @@
+/*
+ *  AS91907.CellMap
+ *  Last Updated: 17/10/2026
+ *  Purpose: A map from cells to slots, for Engines storing a sparse grid, where most cells are empty. Each occupied cell is given a slot, and the Engine keeps whatever it stores for that cell at the slot's index of its own arrays.
+ *  Uses open addressing on primitive arrays, so nothing is allocated while it is used, and clearing, sorting and iterating it only take time for the occupied cells, however big the grid is.
+ */
+
+package as91907;
+
+import java.util.Arrays;
+
+public class CellMap {
+    private static final long EMPTY = -1; // Marks an empty slot, as cells are never negative
+    private static final int RADIX = 11; // Bits sorted by each pass of sort()
+    private static final int DIGITS = 1 << RADIX; // Values of the bits sorted by each pass
+
+    public final int slots; // Number of slots, at least twice the most cells that will be occupied, so probes stay short
+    private final int shift; // Shifts a hash down to a slot
+    private final int bits; // Bits needed for the highest cell
+    private final long[] keys; // The cell in each slot, x * HEIGHT + y, as a long so that huge grids fit. EMPTY if the slot is free
+    public final int[] used; // The occupied slots, in the order they were added, or in order of cell after sort()
+    public int size; // Number of occupied slots
+    private final int[] spare; // Where sort() writes each pass, swapped with used
+    private final int[] counts = new int[DIGITS]; // The count of each digit for sort()
+
+    public CellMap(int capacity, long cells) { // Creates a map with room for the given number of occupied cells, out of the given number of cells
+        long wanted = Long.highestOneBit(Math.max(capacity, 1)) << 2; // The next power of two at least twice the capacity
+        if (wanted > 1 << 30) throw new IllegalArgumentException("Too many agents for a sparse grid");
+        slots = (int) wanted;
+        shift = 64 - Integer.numberOfTrailingZeros(slots);
+        bits = 64 - Long.numberOfLeadingZeros(Math.max(cells - 1, 1));
+        keys = new long[slots];
+        Arrays.fill(keys, EMPTY);
+        used = new int[slots];
+        spare = new int[slots];
+    }
+
+    public int slot(long cell) { // Returns the slot of a cell, giving it one if it doesn't have one yet
+        int slot = (int) ((cell * 0x9e3779b97f4a7c15L) >>> shift); // Fibonacci hashing, which spreads out neighbouring cells
+        while (true) {
+            long key = keys[slot];
+            if (key == cell) return slot;
+            if (key == EMPTY) { // Not in the map, so takes this slot
+                keys[slot] = cell;
+                used[size ++] = slot;
+                return slot;
+            }
+            slot = (slot + 1) & (slots - 1); // Linear probing, trying the next slot
+        }
+    }
+
+    public int find(long cell) { // Returns the slot of a cell, or -1 if it has none
+        int slot = (int) ((cell * 0x9e3779b97f4a7c15L) >>> shift);
+        while (true) {
+            long key = keys[slot];
+            if (key == cell) return slot;
+            if (key == EMPTY) return -1;
+            slot = (slot + 1) & (slots - 1);
+        }
+    }
+
+    public long cell(int slot) { // Returns the cell in a slot
+        return keys[slot];
+    }
+
+    public void clear() { // Empties every occupied slot
+        for (int i = 0; i < size; i++) keys[used[i]] = EMPTY;
+        size = 0;
+    }
+
+    public void sort() { // Sorts used by cell, so the occupied cells can be run in the same order as a dense grid. A radix sort, so it takes time for the occupied cells, not the grid
+        int[] from = used, to = spare;
+        for (int digit = 0; digit < bits; digit += RADIX) { // Sorts by each RADIX bits, starting with the lowest. Each pass keeps the order of the last within equal digits
+            Arrays.fill(counts, 0);
+            for (int i = 0; i < size; i++) counts[(int) (keys[from[i]] >>> digit) & (DIGITS - 1)] ++; // Counts each digit
+            for (int d = 0, total = 0; d < counts.length; d++) { // Turns the counts into the start of each digit's range
+                int count = counts[d];
+                counts[d] = total;
+                total += count;
+            }
+            for (int i = 0; i < size; i++) to[counts[(int) (keys[from[i]] >>> digit) & (DIGITS - 1)] ++] = from[i]; // Places each slot
+            int[] swap = from;
+            from = to;
+            to = swap;
+        }
+        if (from != used) System.arraycopy(from, 0, used, 0, size); // After an odd number of passes, the sorted slots are in spare
+    }
+}
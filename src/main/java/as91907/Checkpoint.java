@@ -0,0 +1,193 @@
+/*
+ *  AS91907.Checkpoint
+ *  Last Updated: 17/10/2026
+ *  Purpose: Everything needed to carry on a Simulation from the end of a tick: its parameters, its progress, the seeds of its random numbers, and every agent's cell and internal state, in the order its engine runs them.
+ *  Can be written to and read from a binary file, which is written to a temporary file first and then moved over the old one, so a crash while writing never loses the previous checkpoint.
+ *  Format: "AS91907C", version (int), engine (char), width, height, infection duration, immunity duration (ints), infection chance (double), tick speed (int), seed (long),
+ *          ticks remaining (int), ticks run (long), infections (int), counts (3 ints), agents (int), seeds (int length, then longs), cells (longs), states, then the order (ints), each agents long, the order only for engines that have one.
+ */
+
+package as91907;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+public class Checkpoint {
+    private static final long MAGIC = 0x4153393139303743L; // "AS91907C"
+    private static final int VERSION = 2; // 2 has long cells, for grids of more cells than an int can count
+    private static final int BUFFER = 1 << 20; // Size of the buffer the file is written and read through
+
+    // The simulation's parameters
+    public char engine;
+    public int width, height, infectionDuration, immunityDuration;
+    public double infectionChance;
+    public int tickSpeed;
+    public long seed;
+    // The simulation's progress
+    public int ticks; // Number of ticks remaining
+    public long elapsed; // Number of ticks run
+    public int infections;
+    public final int[] count = new int[3];
+    // The agents, in the order the engine runs them. Agent i is at index i of each
+    public final int agents;
+    public final long[] cell; // Cells, x * HEIGHT + y
+    public final int[] state; // Internal states, the same as Person.state
+    public final int[] order; // The order of the agents in each cell, the same as ArrayEngine.order. Null for engines that keep the agents in order themselves
+    public long[] seeds; // The seeds of the engine's random numbers
+    private ByteBuffer buffer; // The buffer the file is written through, kept for the next checkpoint
+
+    public Checkpoint(int agents, boolean ordered) { // Creates an empty checkpoint with room for the given number of agents, to be filled by save()
+        this.agents = agents;
+        cell = new long[agents];
+        state = new int[agents];
+        order = ordered ? new int[agents] : null;
+    }
+
+    public Checkpoint(Simulation s) { // Creates an empty checkpoint with room for a simulation's agents
+        this(s.count[0] + s.count[1] + s.count[2], Engine.ordered(s.ENGINE));
+    }
+
+    public void save(Simulation s) { // Copies the state of a simulation at the end of a tick. Must be run on the simulation's thread, between ticks
+        engine = s.ENGINE;
+        width = s.WIDTH;
+        height = s.HEIGHT;
+        infectionDuration = s.INFECTION_COOLDOWN;
+        immunityDuration = s.IMMUNITY_COOLDOWN - s.INFECTION_COOLDOWN;
+        infectionChance = s.INFECTION_CHANCE;
+        tickSpeed = s.TICK_SPEED;
+        seed = s.SEED;
+        ticks = s.ticks;
+        elapsed = s.elapsed;
+        infections = s.infections;
+        System.arraycopy(s.count, 0, count, 0, 3);
+        s.engine.save(this);
+    }
+
+    public void write(File file) throws IOException { // Writes to a temporary file, then moves it over the file, so there is always a whole checkpoint
+        File temporary = new File(file.getPath() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary.toPath(), StandardOpenOption.WRITE, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            if (buffer == null) buffer = ByteBuffer.allocateDirect(BUFFER);
+            buffer.clear();
+            buffer.putLong(MAGIC).putInt(VERSION).putChar(engine)
+                    .putInt(width).putInt(height).putInt(infectionDuration).putInt(immunityDuration).putDouble(infectionChance).putInt(tickSpeed).putLong(seed)
+                    .putInt(ticks).putLong(elapsed).putInt(infections).putInt(count[0]).putInt(count[1]).putInt(count[2])
+                    .putInt(agents).putInt(seeds.length);
+            for (long s : seeds) buffer.putLong(s); // There are only ever a few hundred
+            write(channel, buffer, cell);
+            write(channel, buffer, state);
+            if (order != null) write(channel, buffer, order);
+            flush(channel, buffer);
+            channel.force(false); // Makes sure it is on the disk before it replaces the old one
+        }
+        Files.move(temporary.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    public static Checkpoint read(File file) throws IOException { // Reads a checkpoint written by write()
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER);
+            buffer.flip();
+            fill(channel, buffer, 8 + 4 + 2);
+            if (buffer.getLong() != MAGIC) throw new IOException(file + " is not a checkpoint");
+            if (buffer.getInt() != VERSION) throw new IOException(file + " is from a different version");
+            char engine = buffer.getChar();
+            if (engine >= Engine.NAMES.length) throw new IOException(file + " has an unknown engine");
+            fill(channel, buffer, 4 * 4 + 8 + 4 + 8 + 4 + 8 + 4 * 4 + 4 + 4);
+            int width = buffer.getInt(), height = buffer.getInt(), infectionDuration = buffer.getInt(), immunityDuration = buffer.getInt();
+            double infectionChance = buffer.getDouble();
+            int tickSpeed = buffer.getInt();
+            long seed = buffer.getLong();
+            int ticks = buffer.getInt();
+            long elapsed = buffer.getLong();
+            int infections = buffer.getInt();
+            int[] count = new int[]{buffer.getInt(), buffer.getInt(), buffer.getInt()};
+            int agents = buffer.getInt();
+            long[] seeds = new long[buffer.getInt()];
+            fill(channel, buffer, 8L * seeds.length);
+            for (int i = 0; i < seeds.length; i++) seeds[i] = buffer.getLong();
+
+            Checkpoint c = new Checkpoint(agents, Engine.ordered(engine));
+            c.engine = engine;
+            c.width = width;
+            c.height = height;
+            c.infectionDuration = infectionDuration;
+            c.immunityDuration = immunityDuration;
+            c.infectionChance = infectionChance;
+            c.tickSpeed = tickSpeed;
+            c.seed = seed;
+            c.ticks = ticks;
+            c.elapsed = elapsed;
+            c.infections = infections;
+            System.arraycopy(count, 0, c.count, 0, 3);
+            c.seeds = seeds;
+            read(channel, buffer, c.cell);
+            read(channel, buffer, c.state);
+            if (c.order != null) read(channel, buffer, c.order);
+            if (agents != count[0] + count[1] + count[2]) throw new IOException(file + " is corrupt");
+            return c;
+        }
+    }
+
+    private static void write(FileChannel channel, ByteBuffer buffer, int[] values) throws IOException { // Writes an array through the buffer, as many ints at a time as fit
+        for (int i = 0; i < values.length; ) {
+            if (buffer.remaining() < 4) flush(channel, buffer);
+            IntBuffer ints = buffer.asIntBuffer();
+            int n = Math.min(ints.remaining(), values.length - i);
+            ints.put(values, i, n);
+            buffer.position(buffer.position() + 4 * n);
+            i += n;
+        }
+    }
+
+    private static void write(FileChannel channel, ByteBuffer buffer, long[] values) throws IOException { // Writes an array through the buffer, as many longs at a time as fit
+        for (int i = 0; i < values.length; ) {
+            if (buffer.remaining() < 8) flush(channel, buffer);
+            LongBuffer longs = buffer.asLongBuffer();
+            int n = Math.min(longs.remaining(), values.length - i);
+            longs.put(values, i, n);
+            buffer.position(buffer.position() + 8 * n);
+            i += n;
+        }
+    }
+
+    private static void flush(FileChannel channel, ByteBuffer buffer) throws IOException { // Writes everything in the buffer to the file, emptying it
+        buffer.flip();
+        while (buffer.hasRemaining()) channel.write(buffer);
+        buffer.clear();
+    }
+
+    private static void read(FileChannel channel, ByteBuffer buffer, int[] values) throws IOException { // Reads an array through the buffer, as many ints at a time as are in it
+        for (int i = 0; i < values.length; ) {
+            if (buffer.remaining() < 4) fill(channel, buffer, 4);
+            IntBuffer ints = buffer.asIntBuffer();
+            int n = Math.min(ints.remaining(), values.length - i);
+            ints.get(values, i, n);
+            buffer.position(buffer.position() + 4 * n);
+            i += n;
+        }
+    }
+
+    private static void read(FileChannel channel, ByteBuffer buffer, long[] values) throws IOException { // Reads an array through the buffer, as many longs at a time as are in it
+        for (int i = 0; i < values.length; ) {
+            if (buffer.remaining() < 8) fill(channel, buffer, 8);
+            LongBuffer longs = buffer.asLongBuffer();
+            int n = Math.min(longs.remaining(), values.length - i);
+            longs.get(values, i, n);
+            buffer.position(buffer.position() + 8 * n);
+            i += n;
+        }
+    }
+
+    private static void fill(FileChannel channel, ByteBuffer buffer, long bytes) throws IOException { // Reads from the file until the buffer has at least the given number of bytes left to read
+        if (bytes > buffer.capacity()) throw new IOException("Checkpoint is corrupt");
+        buffer.compact();
+        while (buffer.position() < bytes) if (channel.read(buffer) < 0) throw new IOException("Checkpoint ended early");
+        buffer.flip();
+    }
+}
@@ -0,0 +1,80 @@
+/*
+ *  AS91907.Checkpointer
+ *  Last Updated: 17/10/2026
+ *  Purpose: An Observer that saves a Checkpoint of a Simulation every so often, and once more when it ends, so a crash or closed window can be carried on from.
+ *  A temporary checkpoint, only kept to carry on after a crash or early close, is deleted instead if the simulation finishes by itself.
+ *  The agents are copied between ticks, which only takes as long as copying a few arrays, then written to the file on a background thread. If the last checkpoint is still being written, the next one waits for a later tick rather than holding up the simulation.
+ */
+
+package as91907;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.locks.LockSupport;
+
+public class Checkpointer implements Observer {
+    private final File file; // Where the checkpoints are written
+    private final long interval; // Shortest time between checkpoints, in nanoseconds
+    private final Checkpoint checkpoint; // Reused for every checkpoint
+    private final Thread writer; // The background thread
+    private volatile boolean writing = false; // Whether the background thread is writing the checkpoint
+    private volatile boolean closed = false; // Whether the background thread should stop
+    private volatile Thread waiter; // The thread waiting for the background thread, if any
+    private long saved; // The time the last checkpoint was copied
+    public boolean temporary = false; // Whether to delete the file if the simulation runs to its end, rather than being stopped early
+    public volatile IOException error; // The last error writing a checkpoint, if any
+
+    public Checkpointer(Simulation s, File file, long intervalMillis) {
+        this.file = file;
+        interval = intervalMillis * 1_000_000;
+        checkpoint = new Checkpoint(s);
+        writer = new Thread(this::write, "Checkpointer " + s.ID);
+        writer.setDaemon(true); // Doesn't keep the program open, done() writes the last checkpoint itself
+        writer.start();
+        saved = System.nanoTime();
+    }
+
+    @Override
+    public void ticked(Simulation s) { // Copies the simulation if it is time, and the last checkpoint has been written
+        if (writing || System.nanoTime() - saved < interval) return;
+        checkpoint.save(s);
+        if (checkpoint.ticks > 0) checkpoint.ticks --; // The simulation counts this tick off after its Observers
+        saved = System.nanoTime();
+        writing = true;
+        LockSupport.unpark(writer); // Wakes the background thread
+    }
+
+    @Override
+    public void done(Simulation s) { // Waits for the background thread, then writes the final state on this thread, or deletes a temporary file that isn't needed
+        waiter = Thread.currentThread();
+        while (writing) LockSupport.park(this);
+        closed = true;
+        LockSupport.unpark(writer);
+        if (temporary && (s.ticks == 0 || s.count[Main.INFECTED] == 0)) { // Ran out of ticks or infections, so there is nothing to carry on
+            if (!file.delete() && file.exists()) error = new IOException("Could not delete " + file);
+            return;
+        }
+        checkpoint.save(s);
+        try {
+            checkpoint.write(file);
+        } catch (IOException e) {
+            error = e;
+        }
+    }
+
+    private void write() { // Writes each checkpoint it is handed to the file. Runs on the background thread
+        while (!closed) {
+            if (!writing) {
+                LockSupport.park(this); // Waits to be handed a checkpoint
+                continue;
+            }
+            try {
+                checkpoint.write(file);
+            } catch (IOException e) { // Keeps the last checkpoint that was written, and tries again next time
+                error = e;
+            }
+            writing = false;
+            LockSupport.unpark(waiter); // Wakes the simulation's thread if it is waiting
+        }
+    }
+}
@@ -0,0 +1,176 @@
+/*
+ *  AS91907.ClusterEngine
+ *  Last Updated: 17/10/2026
+ *  Purpose: An Engine that doesn't store any agents itself, but splits the grid into tiles of whole columns, one for each Worker process, which can be on this machine or others. Lets a single simulation use the memory and cores of several JVMs.
+ *  Each tick, it tells every worker to run its tick, and adds up the counts they send back, so the simulation's history and observers work the same as with any other Engine. The workers swap the agents crossing between tiles with each other directly.
+ *  Runs the same rules as every other Engine, but the random numbers are split between the tiles, so the same seed gives a different simulation for each number of workers.
+ */
+
+package as91907;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+public class ClusterEngine extends Engine {
+    // Labels for the messages sent to the workers each tick
+    static final byte STOP = 0;
+    static final byte TICK = 1;
+    static final byte READY = 2; // Sent by each worker once it has connected to its neighbours and created its agents
+
+    private static final int SPAWN_TIMEOUT = 60_000; // Longest to wait for the workers started on this machine to connect, in milliseconds
+    // Options of this JVM that aren't passed on to the workers it starts, as they would clash with this one's, such as both listening on the same port
+    private static final String[] UNFORWARDED = {"-agentlib", "-agentpath", "-javaagent", "-Xdebug", "-Xrunjdwp", "-XX:StartFlightRecording", "-XX:+FlightRecorder", "-Dcom.sun.management.jmxremote"};
+
+    public final int WORKERS; // Number of workers, each with one tile
+    private final ServerSocket server; // Where the workers connect
+    private final Socket[] sockets;
+    private final DataInputStream[] in;
+    private final DataOutputStream[] out;
+    private final Process[] processes; // The workers started on this machine, or null if they were waited for
+
+    // The protocol has no authentication, so workers started on this machine are only accepted from this machine
+    public ClusterEngine(Simulation s, int[] startingCount, int workers, int port, InetAddress bind) { // Waits for the workers on port at bind, or every address if it is null, or starts them on this machine if port is 0, then gives each one its tile
+        super(s);
+        if (workers > s.WIDTH) throw new IllegalArgumentException("Can't split " + s.WIDTH + " columns between " + workers + " workers");
+        WORKERS = workers;
+        sockets = new Socket[workers];
+        in = new DataInputStream[workers];
+        out = new DataOutputStream[workers];
+        try {
+            server = port == 0 ? new ServerSocket(0, workers, InetAddress.getLoopbackAddress()) : new ServerSocket(port, workers, bind);
+            processes = port == 0 ? spawn(server.getInetAddress().getHostAddress() + ":" + server.getLocalPort()) : null;
+            if (processes != null) server.setSoTimeout(SPAWN_TIMEOUT); // Only waits forever for workers started by hand
+            for (int i = 0; i < workers; i++) { // Tiles are given out in the order the workers connect
+                sockets[i] = server.accept();
+                sockets[i].setTcpNoDelay(true); // Every message is waited for, so is sent straight away
+                in[i] = new DataInputStream(new BufferedInputStream(sockets[i].getInputStream()));
+                out[i] = new DataOutputStream(new BufferedOutputStream(sockets[i].getOutputStream()));
+            }
+            int[] ports = new int[workers]; // Where each worker waits for its left neighbour
+            for (int i = 0; i < workers; i++) ports[i] = in[i].readInt();
+            Rng seeds = new Rng(s.SEED); // Each tile gets its own random numbers
+            for (int i = 0; i < workers; i++) {
+                // Tile i is the columns first to last - 1, with the share of each state in proportion to its width
+                int first = (int) ((long) s.WIDTH * i / workers), last = (int) ((long) s.WIDTH * (i + 1) / workers);
+                DataOutputStream o = out[i];
+                o.writeInt(i);
+                o.writeInt(s.WIDTH);
+                o.writeInt(s.HEIGHT);
+                o.writeInt(s.INFECTION_COOLDOWN);
+                o.writeInt(s.IMMUNITY_COOLDOWN - s.INFECTION_COOLDOWN);
+                o.writeDouble(s.INFECTION_CHANCE);
+                o.writeLong(seeds.nextLong());
+                o.writeInt(first);
+                o.writeInt(last);
+                for (int j = 0; j < 3; j++) o.writeInt((int) ((long) startingCount[j] * last / s.WIDTH - (long) startingCount[j] * first / s.WIDTH));
+                if (i + 1 < workers) { // Where to find the right neighbour, at the address it connected from
+                    o.writeUTF(sockets[i + 1].getInetAddress().getHostAddress());
+                    o.writeInt(ports[i + 1]);
+                } else o.writeUTF(""); // The last tile has no right neighbour
+                o.flush();
+            }
+            for (int i = 0; i < workers; i++) if (in[i].readByte() != READY) throw new IOException("Worker " + i + " didn't start");
+        } catch (IOException e) {
+            disconnect();
+            throw new UncheckedIOException("Could not start the workers: " + e.getMessage(), e);
+        }
+    }
+
+    private Process[] spawn(String coordinator) throws IOException { // Starts the workers as new JVMs on this machine, with the same Java, options and classes as this one
+        ArrayList<String> command = new ArrayList<>();
+        command.add(ProcessHandle.current().info().command().orElse("java"));
+        for (String option : ManagementFactory.getRuntimeMXBean().getInputArguments()) if (forwarded(option)) command.add(option); // Such as the heap size, added modules and preview features, so the workers run the same code as this one
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        command.add(Worker.class.getName());
+        command.add("--coordinator");
+        command.add(coordinator);
+        Process[] started = new Process[WORKERS];
+        for (int i = 0; i < WORKERS; i++) {
+            started[i] = new ProcessBuilder(command)
+                    .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                    .redirectError(ProcessBuilder.Redirect.INHERIT) // Shows any problems the workers have
+                    .directory(new File(System.getProperty("user.dir")))
+                    .start();
+        }
+        return started;
+    }
+
+    private static boolean forwarded(String option) { // Whether an option of this JVM is passed on to the workers it starts
+        for (String unforwarded : UNFORWARDED) if (option.startsWith(unforwarded)) return false;
+        return true;
+    }
+
+    // Every phase is run by the workers during update, which waits for them all, so the other phases have nothing to do
+    @Override
+    public void spread() {}
+    @Override
+    public void move() {}
+    @Override
+    public void finishMovement() {}
+
+    @Override
+    public void update(int[] count) { // Runs a tick on every worker at once, then adds up their counts and infections
+        try {
+            for (DataOutputStream o : out) {
+                o.writeByte(TICK);
+                o.flush();
+            }
+            for (DataInputStream i : in) {
+                for (int j = 0; j < 3; j++) count[j] += i.readInt();
+                s.infections += i.readInt();
+            }
+        } catch (IOException e) { // A worker has gone, so the simulation can't carry on
+            throw new UncheckedIOException("Lost a worker: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public void close() { // Stops the workers when the simulation is done
+        for (DataOutputStream o : out) if (o != null) try {
+            o.writeByte(STOP);
+            o.flush();
+        } catch (IOException ignored) {} // Already gone
+        disconnect();
+    }
+
+    private void disconnect() { // Closes every connection, waiting for the workers started on this machine to finish
+        for (Socket socket : sockets) if (socket != null) try {
+            socket.close();
+        } catch (IOException ignored) {}
+        if (server != null) try {
+            server.close();
+        } catch (IOException ignored) {}
+        if (processes != null) for (Process p : processes) try {
+            if (!p.waitFor(10, TimeUnit.SECONDS)) p.destroyForcibly();
+        } catch (InterruptedException e) {
+            p.destroyForcibly();
+        }
+    }
+
+    @Override
+    public void save(Checkpoint c) {
+        throw new UnsupportedOperationException("A Cluster simulation can't be checkpointed");
+    }
+
+    @Override
+    public char renderedState(int x, int y) {
+        throw new UnsupportedOperationException("A Cluster simulation can't be watched");
+    }
+
+    @Override
+    public CellBits track() {
+        throw new IllegalArgumentException("A Cluster simulation can't be watched, as the cells are in the workers");
+    }
+}
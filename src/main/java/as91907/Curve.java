@@ -0,0 +1,84 @@
+/*
+ *  AS91907.Curve
+ *  Last Updated: 17/10/2026
+ *  Purpose: The data of the epidemic curve, kept in a ring buffer of a fixed number of columns, each holding the lowest and highest count of each state over span ticks, so a column is one pixel of the chart.
+ *  Adding a frame only changes the newest column, or starts a new one over the oldest, so it takes the same time and memory however long the simulation has run.
+ *  If the frames come further apart than span ticks, span is doubled by merging each pair of columns, which happens once for each doubling.
+ */
+
+package as91907;
+
+import java.util.Arrays;
+
+public class Curve {
+    public final int CAPACITY; // Number of columns kept
+    public long span = 1; // Number of ticks in each column
+    public long oldest, newest = -1; // The first and last columns kept, counted from tick 0, or newest is -1 if there are none
+    public int version; // Goes up whenever every column changes, so they all need drawing again
+    private int[][] min, max; // The lowest and highest count of each state in each column, column c at index c % CAPACITY
+    private long last = -1; // The tick of the last frame added
+
+    public Curve(int capacity) {
+        CAPACITY = capacity;
+        min = new int[3][capacity];
+        max = new int[3][capacity];
+    }
+
+    public void add(Frame f) { // Adds the counts of a frame, if it has moved on since the last. Runs with the frame locked
+        if (f.tick == last) return; // Nothing new, as when a replay is paused
+        if (f.tick < last) clear(); // A replay has gone back
+        if (last >= 0) while (f.tick - last > span) merge(); // Keeps the ticks of the frame in at most two columns, so no column is left empty
+        last = f.tick;
+        long column = f.tick / span;
+        int i = (int) (column % CAPACITY);
+        if (column > newest) { // Starts a new column, over the oldest if full
+            if (newest == -1) oldest = column; // The first column, which needn't be at tick 0 when carrying on from a checkpoint
+            newest = column;
+            if (newest - oldest >= CAPACITY) oldest = newest - CAPACITY + 1;
+            for (int j = 0; j < 3; j++) {
+                min[j][i] = f.low[j];
+                max[j][i] = f.high[j];
+            }
+        } else for (int j = 0; j < 3; j++) { // Otherwise adds to the newest column
+            min[j][i] = Math.min(min[j][i], f.low[j]);
+            max[j][i] = Math.max(max[j][i], f.high[j]);
+        }
+    }
+
+    public int min(int state, long column) { // Returns the lowest count of a state in a kept column
+        return min[state][(int) (column % CAPACITY)];
+    }
+
+    public int max(int state, long column) { // Returns the highest count of a state in a kept column
+        return max[state][(int) (column % CAPACITY)];
+    }
+
+    private void merge() { // Doubles span, merging each pair of columns into one
+        int[][] mergedMin = new int[3][CAPACITY], mergedMax = new int[3][CAPACITY];
+        for (int j = 0; j < 3; j++) {
+            Arrays.fill(mergedMin[j], Integer.MAX_VALUE);
+            Arrays.fill(mergedMax[j], Integer.MIN_VALUE);
+        }
+        if (newest >= 0) for (long c = oldest; c <= newest; c++) {
+            int from = (int) (c % CAPACITY), to = (int) ((c / 2) % CAPACITY);
+            for (int j = 0; j < 3; j++) {
+                mergedMin[j][to] = Math.min(mergedMin[j][to], min[j][from]);
+                mergedMax[j][to] = Math.max(mergedMax[j][to], max[j][from]);
+            }
+        }
+        min = mergedMin;
+        max = mergedMax;
+        span *= 2;
+        oldest /= 2;
+        newest = newest < 0 ? -1 : newest / 2;
+        version ++;
+    }
+
+    private void clear() { // Forgets every column
+        span = 1;
+        oldest = 0;
+        newest = -1;
+        last = -1;
+        version ++;
+    }
+}
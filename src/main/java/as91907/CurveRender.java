@@ -0,0 +1,102 @@
+/*
+ *  AS91907.CurveRender
+ *  Last Updated: 17/10/2026
+ *  Purpose: The Render of the epidemic curve, charting the count of each state over time, from a Curve of the frames, with the newest column at the right.
+ *  The image is drawn as a ring, the same as the Curve, so each frame only draws the newest column, and paint puts the two halves of the ring in order. Drawing takes the same time however long the simulation has run.
+ */
+
+package as91907;
+
+import java.awt.Graphics;
+import java.awt.image.DataBufferInt;
+import java.util.Arrays;
+
+public class CurveRender extends Render {
+    private static final int CAPACITY = 4096; // Most columns kept, which is also the widest the chart is drawn
+    private static final char[] ORDER = {Main.IMMUNE, Main.NORMAL, Main.INFECTED}; // The order the states are drawn in, so INFECTED is on top, the same priority as the visualisation
+
+    private Curve curve; // The data being charted. Created the first time it is needed, as Render's constructor calls needNewImage before this class's constructor has run
+
+    public CurveRender(Frame f) {
+        super(f, "Epidemic Curve ", 400, 150);
+    }
+
+    @Override
+    public void record() { // Adds every frame to the curve, so it has no gaps from when the chart was hidden
+        curve.add(f);
+    }
+
+    @Override
+    public boolean needNewImage() { // The image is the size of the window, up to the number of columns kept
+        if (curve == null) curve = new Curve(CAPACITY);
+        return image == null || image.w != Math.min(Math.max(w, 1), CAPACITY) || image.h != Math.max(h, 1);
+    }
+
+    @Override
+    public void newImage() {
+        image = new Chart(Math.min(Math.max(w, 1), CAPACITY), Math.max(h, 1));
+    }
+
+    @Override
+    public void paint(Graphics g) { // Draws the older columns, from after the newest to the right edge of the ring, then the newer ones from the left edge
+        Chart image = (Chart) onScreen;
+        g.setColor(Main.COLOUR[Main.EMPTY]);
+        g.fillRect(0, 0, getWidth(), getHeight());
+        int left = (getWidth() - image.w) / 2, top = (getHeight() - image.h) / 2;
+        int split = (int) ((image.shown + 1) % image.w); // Where the oldest column in the image is
+        g.drawImage(image, left, top, left + image.w - split, top + image.h, split, 0, image.w, image.h, null);
+        g.drawImage(image, left + image.w - split, top, left + image.w, top + image.h, 0, 0, split, image.h, null);
+    }
+
+    private class Chart extends Image { // The columns of the curve, column c at pixel column c % w
+        private int[] pixels; // The pixels of the image, written to directly. Pixel (x, y) is at index y * w + x
+        private int[] colours; // The colour of each state when the columns were drawn
+        private int version; // The version of the curve when the columns were drawn
+        volatile long shown = -1; // The newest column drawn, or -1 if none. Read by paint
+
+        Chart(int w, int h) {
+            super(w, h);
+        }
+
+        @Override
+        public void render() {
+            if (curve == null) return; // Called by Image's constructor, before there is anything to draw
+            boolean all = false; // Whether every column needs drawing
+            if (pixels == null) { // First render
+                pixels = ((DataBufferInt) getRaster().getDataBuffer()).getData();
+                colours = new int[Main.COLOUR.length];
+                all = true;
+            }
+            for (int i = 0; i < colours.length; i++) if (colours[i] != Main.COLOUR[i].getRGB()) all = true; // If a colour has been changed, draw every column in the new colours
+            if (version != curve.version) all = true; // If every column of the curve has changed
+            if (curve.newest < 0) { // Nothing to draw yet
+                if (all) redraw();
+                return;
+            }
+            long first = Math.max(curve.oldest, curve.newest - w + 1); // The oldest column that fits
+            if (all) redraw();
+            else first = Math.max(first, shown); // Otherwise only the newest columns, including the last one drawn, as frames might have been added to it
+            for (long column = first; column <= curve.newest; column++) draw(column);
+            shown = curve.newest;
+        }
+
+        private void redraw() { // Clears the image, to draw every column again in the current colours
+            for (int i = 0; i < colours.length; i++) colours[i] = Main.COLOUR[i].getRGB();
+            version = curve.version;
+            Arrays.fill(pixels, colours[Main.EMPTY]);
+            shown = -1;
+        }
+
+        private void draw(long column) { // Draws a column of the curve, as a line from the lowest to the highest count of each state in it
+            int x = (int) (column % w);
+            for (int y = 0; y < h; y++) pixels[y * w + x] = colours[Main.EMPTY];
+            for (char state : ORDER) {
+                for (int y = y(curve.max(state, column)); y <= y(curve.min(state, column)); y++) pixels[y * w + x] = colours[state];
+            }
+        }
+
+        private int y(int count) { // Returns the row of a count, with the whole population at the top
+            return (h - 1) - (int) ((long) count * (h - 1) / Math.max(f.total, 1));
+        }
+    }
+}
@@ -0,0 +1,186 @@
+/*
+ *  AS91907.Engine
+ *  Last Updated: 17/10/2026
+ *  Purpose: Stores the agents of a Simulation and runs the phases of each tick on them. Different Engines store the agents in different ways, but follow the same rules.
+ */
+
+package as91907;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.Arrays;
+
+public abstract class Engine {
+    // Labels for the different kinds of Engine
+    public static final char PERSON = 0;
+    public static final char ARRAY = 1;
+    public static final char PARALLEL = 2;
+    public static final char WHEEL = 3;
+    public static final char OFF_HEAP = 4; // Only available when built and run with the Foreign Memory API
+    public static final char CLUSTER = 5; // Only created with workers, by Batch
+    public static final String[] NAMES = new String[]{"Person", "Array", "Parallel", "Wheel", "OffHeap", "Cluster"}; // Names of each kind of Engine, for the launcher and command line
+
+    // Grids with fewer agents per cell than this are stored sparsely, keeping only the occupied cells in a CellMap, so that memory and time grow with the agents instead of the area
+    // Below this, going through every cell each tick costs more than looking each agent's cell up
+    public static final double SPARSE_DENSITY = 1.0 / 16;
+    public static final long DENSE_CELLS = Integer.MAX_VALUE - 8; // The most cells a dense grid can have, the longest an array can be
+
+    // The moves available from a cell, indexed by edges(). Each lists the moves in the same order as Person: 0 stay still, 1 up, 2 left, 3 down, 4 right
+    // Picking a random index of the list gives the same moves as checking each direction, without needing to work out which are available every time
+    protected static final byte[][] MOVES = new byte[16][];
+    static {
+        for (int edges = 0; edges < 16; edges++) {
+            MOVES[edges] = new byte[1 + Integer.bitCount(edges)];
+            for (int move = 1, i = 1; move <= 4; move++) if ((edges & (1 << (move - 1))) != 0) MOVES[edges][i++] = (byte) move; // Adds each direction that isn't blocked by an edge
+        }
+    }
+
+    protected final Simulation s; // The simulation it runs
+
+    // Has cell c (x * HEIGHT + y) if it might have changed its rendered state since the last collect(), because someone moved in or out or changed state
+    // Null unless something is watching, so that headless simulations don't pay for it
+    public CellBits dirty;
+    // The rendered state of each cell as of the last collect(), at index x * HEIGHT + y. The only copy of the whole grid, which a Frame uses as level 0 of its Pyramid
+    // A Frame only collects with its lock held, so the Renders never see it change unless another watcher collects on a tick the Frame skips, which only shows a cell a tick early
+    public byte[] rendered;
+    private CellBits[] trackers = new CellBits[0]; // The changed cells of each watcher, which collect() adds to, and each watcher clears
+    private long collected = -1; // The tick that was last collected
+
+    private static final int CHANCES = 256; // Number of chances worked out in advance
+    private final double[] chances = new double[CHANCES]; // The chance of being infected in a cell with each number of INFECTED, for fewer than CHANCES
+
+    protected Engine(Simulation s) {
+        this.s = s;
+        for (int infected = 1; infected < CHANCES; infected++) chances[infected] = chance(s.INFECTION_CHANCE, infected);
+    }
+
+    // Each INFECTED agent in a cell has INFECTION_CHANCE to infect each NORMAL agent, so a NORMAL agent escapes all of them with (1 - INFECTION_CHANCE)^INFECTED
+    // Giving each NORMAL agent a single draw against the chance of not escaping is the same, with one random number for each NORMAL agent instead of each pair
+    protected final double chance(int infected) { // Returns the chance of a NORMAL agent being infected in a cell with the given number of INFECTED, which is at least 1
+        return infected < CHANCES ? chances[infected] : chance(s.INFECTION_CHANCE, infected);
+    }
+    private static double chance(double infectionChance, int infected) {
+        return -Math.expm1(infected * Math.log1p(-infectionChance)); // 1 - (1 - INFECTION_CHANCE)^INFECTED, accurately even for tiny chances
+    }
+
+    public static Engine create(char type, Simulation s, int[] startingCount) { // Creates an Engine of the given kind, filled with the starting population
+        boolean sparse = sparse(type, s, startingCount[Main.NORMAL] + startingCount[Main.INFECTED] + startingCount[Main.IMMUNE]);
+        return switch (type) {
+            case PERSON -> new PersonEngine(s, startingCount, sparse);
+            case ARRAY -> new ArrayEngine(s, startingCount, sparse);
+            case PARALLEL -> new ParallelEngine(s, startingCount);
+            case WHEEL -> new WheelEngine(s, startingCount, sparse);
+            case OFF_HEAP -> offHeap(new Class<?>[]{Simulation.class, int[].class}, s, startingCount);
+            case CLUSTER -> throw new IllegalArgumentException("The Cluster engine needs workers, so it can only be run by Batch with --workers");
+            default -> throw new IllegalStateException();
+        };
+    }
+
+    public static Engine restore(char type, Simulation s, Checkpoint c) { // Creates an Engine of the given kind, with the agents of a checkpoint
+        boolean sparse = sparse(type, s, c.agents); // Always the same as when it was created, as the number of agents never changes
+        return switch (type) {
+            case PERSON -> new PersonEngine(s, c, sparse);
+            case ARRAY -> new ArrayEngine(s, c, sparse);
+            case PARALLEL -> new ParallelEngine(s, c);
+            case WHEEL -> new WheelEngine(s, c, sparse);
+            case OFF_HEAP -> offHeap(new Class<?>[]{Simulation.class, Checkpoint.class}, s, c);
+            case CLUSTER -> throw new IllegalArgumentException("The Cluster engine can't be restored from a checkpoint");
+            default -> throw new IllegalStateException();
+        };
+    }
+
+    private static Engine offHeap(Class<?>[] types, Object... arguments) { // Creates an OffHeapEngine, which is only compiled by the Java 21+ profiles of the build, so is loaded by name
+        try {
+            return (Engine) Class.forName("as91907.OffHeapEngine").getConstructor(types).newInstance(arguments);
+        } catch (ClassNotFoundException | UnsupportedClassVersionError e) { // Not built, or built for a newer Java, or with preview features that weren't enabled
+            throw new IllegalArgumentException("The OffHeap engine needs a build on Java 22 or newer, or on Java 21 run with --enable-preview");
+        } catch (InvocationTargetException e) {
+            if (e.getCause() instanceof RuntimeException cause) throw cause; // Such as the grid being too big to allocate
+            if (e.getCause() instanceof Error cause) throw cause;
+            throw new IllegalStateException(e.getCause());
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    static boolean ordered(char type) { // Whether an engine saves the order of the agents in each cell separately in checkpoints, rather than saving them in order
+        return type != PERSON && type != OFF_HEAP;
+    }
+
+    private static boolean sparse(char type, Simulation s, int agents) { // Whether to store a simulation's grid sparsely. Either way gives exactly the same simulation
+        long cells = (long) s.WIDTH * s.HEIGHT;
+        if (type == CLUSTER || type == OFF_HEAP) return false; // Each worker stores its own tile, and OffHeapEngine's grid can be as big as memory
+        if (type == PARALLEL) { // Each strip sorts its own range of every cell, so it is always dense
+            if (cells > DENSE_CELLS) throw new IllegalArgumentException("The Parallel engine can't run more than " + DENSE_CELLS + " cells");
+            return false;
+        }
+        if (type == PERSON && cells * 3 > DENSE_CELLS) return true; // PersonEngine has three lists for each cell
+        return cells > DENSE_CELLS || agents < cells * SPARSE_DENSITY;
+    }
+
+    protected static int edges(int x, int y, int width, int height) { // Returns which directions are possible from a cell: 1 up, 2 left, 4 down, 8 right
+        int edges = 0;
+        if (y > 0) edges |= 1;
+        if (x > 0) edges |= 2;
+        if (y < height - 1) edges |= 4;
+        if (x < width - 1) edges |= 8;
+        return edges;
+    }
+
+    public static char parse(String name) { // Converts a name back to its label, ignoring case. Returns Character.MAX_VALUE if there is no such Engine.
+        for (char i = 0; i < NAMES.length; i++) if (NAMES[i].equalsIgnoreCase(name)) return i;
+        return Character.MAX_VALUE;
+    }
+
+    // The phases of a tick, in the order they are run
+    public abstract void spread(); // Spreads infections between agents in the same cell
+    public abstract void move(); // Moves every agent in a random direction
+    public abstract void finishMovement(); // Regroups the agents by their new cells
+    public abstract void update(int[] count); // Updates every agent's state, counting how many are in each state
+
+    public abstract void save(Checkpoint c); // Copies every agent and the seeds of the random numbers into a checkpoint, so that restoring it carries on exactly the same
+
+    public abstract char renderedState(int x, int y); // Returns the state that should be rendered for a cell, with the priority INFECTED, NORMAL, IMMUNE, EMPTY
+
+    public void close() {} // Releases anything the engine holds besides its heap memory. Run once the simulation is done, after its Observers
+
+    public CellBits track() { // Starts keeping track of which cells have changed for another watcher, starting with every cell. Must be called before the simulation starts
+        if ((long) s.WIDTH * s.HEIGHT > DENSE_CELLS) throw new IllegalArgumentException("Can't watch more than " + DENSE_CELLS + " cells");
+        if (dirty == null) {
+            dirty = every();
+            rendered = new byte[s.WIDTH * s.HEIGHT];
+            Arrays.fill(rendered, (byte) Main.EMPTY);
+        }
+        CellBits tracker = every();
+        trackers = Arrays.copyOf(trackers, trackers.length + 1);
+        trackers[trackers.length - 1] = tracker;
+        return tracker;
+    }
+
+    private CellBits every() { // Returns a set of every cell
+        CellBits bits = new CellBits((long) s.WIDTH * s.HEIGHT);
+        bits.fill((long) s.WIDTH * s.HEIGHT);
+        return bits;
+    }
+
+    public void collect() { // Brings rendered up to date, adding the cells that really changed to every tracker. Only does anything the first time it is called each tick
+        if (collected == s.elapsed) return;
+        collected = s.elapsed;
+        for (int word = dirty.next(0); word >= 0; word = dirty.next(word + 1)) { // Only the words with cells that might have changed
+            long bits = dirty.take(word);
+            long changed = 0;
+            for (; bits != 0; bits &= bits - 1) { // For each set bit, clearing the lowest one each time
+                int c = (word << 6) + Long.numberOfTrailingZeros(bits);
+                byte state = (byte) renderedState(c / s.HEIGHT, c % s.HEIGHT);
+                if (state != rendered[c]) { // Only marks cells that really changed
+                    rendered[c] = state;
+                    changed |= 1L << c;
+                }
+            }
+            if (changed != 0) for (CellBits tracker : trackers) tracker.add(word, changed);
+        }
+    }
+
+    protected void mark(int x, int y) { // Marks a cell as changed. Only called while tracking
+        dirty.add(x * s.HEIGHT + y);
+    }
+}
@@ -0,0 +1,197 @@
+/*
+ *  AS91907.Ensemble
+ *  Last Updated: 17/10/2026
+ *  Purpose: A static class that runs many replicas of a simulation for every combination of the given parameters, spread across a pool of threads. Writes the mean, variance and percentiles of each state at each tick to a CSV file, one parameter combination at a time as they finish.
+ *  Usage: java as91907.Ensemble [any Batch parameter, as a comma separated list of values to sweep] [--replicas 100] [--ticks 1000] [--threads cores] [--output ensemble.csv]
+ *  Example: java as91907.Ensemble --infection-chance 0.25,0.5,0.75 --immunity-duration 0,32 --replicas 200 --ticks 500
+ */
+
+package as91907;
+
+import java.io.BufferedWriter;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+public class Ensemble {
+    private static final int BINS = 100; // Number of bins each state's count is sorted into at each tick, for the percentiles. Percentiles are accurate to the total population / BINS
+    private static final double[] PERCENTILES = new double[]{0.05, 0.5, 0.95}; // The percentiles written for each state
+    private static final String[] STATES = new String[]{"Normal", "Infected", "Immune"};
+
+    private static BufferedWriter writer; // Where the results are written
+    private static int written = 0; // Number of parameter combinations that have been written
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        Batch.parse(args);
+        // Reads the parameters to sweep, with the same defaults and limits as the launcher's panels
+        int[] widths = Batch.readInts("width", 256, 1);
+        int[] heights = Batch.readInts("height", 256, 1);
+        int[] infectionDurations = Batch.readInts("infection-duration", 16, 1);
+        int[] immunityDurations = Batch.readInts("immunity-duration", 32, 0);
+        double[] infectionChances = Batch.readDoubles("infection-chance", 0.75, 0, 1);
+        int[] normalCounts = Batch.readInts("normal-count", 65535, 0);
+        int[] infectionCounts = Batch.readInts("infection-count", 1, 1);
+        int[] immunityCounts = Batch.readInts("immunity-count", 0, 0);
+        // Reads the settings for the whole ensemble
+        int replicas = Batch.readInt("replicas", 100, 1);
+        int ticks = Batch.readInt("ticks", 1000, 1); // Must end, as every replica's ticks are lined up
+        int threads = Batch.readInt("threads", Runtime.getRuntime().availableProcessors(), 1);
+        long seed = Batch.readSeed();
+        char engine = Batch.readEngine(Engine.ARRAY); // Each replica runs on one thread, so the fastest single threaded engine is the default
+        if (engine == Engine.CLUSTER) Batch.fail("Ensemble can't use the Cluster engine, as each replica runs on one thread");
+        String output = Batch.read("output");
+        Batch.finish();
+
+        // Creates every combination of the parameters
+        ArrayList<Point> points = new ArrayList<>();
+        for (int width : widths) for (int height : heights)
+            for (int infectionDuration : infectionDurations) for (int immunityDuration : immunityDurations)
+                for (double infectionChance : infectionChances)
+                    for (int normalCount : normalCounts) for (int infectionCount : infectionCounts) for (int immunityCount : immunityCounts)
+                        points.add(new Point(width, height, infectionDuration, immunityDuration, infectionChance, new int[]{normalCount, infectionCount, immunityCount}, replicas, ticks, engine));
+
+        writer = new BufferedWriter(new FileWriter(output == null ? "ensemble.csv" : output));
+        // Writes the titles of each column
+        writer.write("Width,Height,Infection Duration,Immunity Duration,Infection Chance,Normal Count,Infection Count,Immunity Count,Tick,Replicas");
+        for (String state : STATES) {
+            writer.write("," + state + " Mean," + state + " Variance");
+            for (double p : PERCENTILES) writer.write("," + state + " P" + Math.round(p * 100));
+        }
+        writer.newLine();
+
+        // Queues every replica, one combination after another so that each combination finishes as soon as possible, and only a few are held in memory at once
+        System.out.printf("Running %d replicas of %d combinations on %d threads (seed %d)%n", replicas, points.size(), threads, seed);
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        Rng seeds = new Rng(seed); // Gives each replica its own seed, in the same order every time
+        for (Point point : points) {
+            for (int r = 0; r < replicas; r++) {
+                long replicaSeed = seeds.nextLong();
+                pool.execute(() -> {
+                    try {
+                        point.run(replicaSeed, points.size());
+                    } catch (Throwable e) { // If a replica fails, its combination can never be written, so stop
+                        e.printStackTrace();
+                        System.exit(1);
+                    }
+                });
+            }
+        }
+        pool.shutdown();
+        pool.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        writer.close();
+    }
+
+    /*
+     *  AS91907.Ensemble.Point
+     *  Last Updated: 17/10/2026
+     *  Purpose: One combination of parameters. Merges the history of each replica into running statistics when it finishes, so only the statistics are kept, and writes them once every replica has finished.
+     */
+    private static class Point {
+        // The parameters of each replica
+        private final int width, height, infectionDuration, immunityDuration;
+        private final double infectionChance;
+        private final int[] startingCount;
+        private final int replicas, ticks;
+        private final char engine;
+        private final int total; // Total population
+
+        private int finished = 0; // Number of replicas merged so far
+        // Statistics of each state at each tick, at index tick * 3 + state. Created when the first replica finishes, and dropped once written
+        private double[] mean, m2; // Running mean, and the sum of squared differences from it (Welford's algorithm)
+        private int[] bins; // Number of replicas in each bin, at index (tick * 3 + state) * BINS + bin
+        private int[] min, max; // Smallest and largest value, which the percentiles are kept between
+
+        private Point(int width, int height, int infectionDuration, int immunityDuration, double infectionChance, int[] startingCount, int replicas, int ticks, char engine) {
+            this.width = width;
+            this.height = height;
+            this.infectionDuration = infectionDuration;
+            this.immunityDuration = immunityDuration;
+            this.infectionChance = infectionChance;
+            this.startingCount = startingCount;
+            this.replicas = replicas;
+            this.ticks = ticks;
+            this.engine = engine;
+            total = startingCount[0] + startingCount[1] + startingCount[2];
+        }
+
+        private void run(long seed, int points) throws IOException { // Runs a replica on this thread, then merges it
+            Simulation s = new Simulation(width, height, infectionDuration, immunityDuration, infectionChance, startingCount, ticks, 0, seed, engine);
+            History history = new History(ticks + 1); // Keeps the counts of every tick, as the simulation only keeps the latest
+            history.add(s.count);
+            s.addObserver(new Observer() {
+                @Override
+                public void ticked(Simulation s) {
+                    history.add(s.count);
+                }
+                @Override
+                public void done(Simulation s) {}
+            });
+            s.run();
+            if (merge(history)) write(points); // The replica that finishes last writes the combination
+        }
+
+        private synchronized boolean merge(History history) { // Adds a finished replica's history to the statistics, returning whether it was the last one
+            if (mean == null) {
+                mean = new double[(ticks + 1) * 3];
+                m2 = new double[(ticks + 1) * 3];
+                bins = new int[(ticks + 1) * 3 * BINS];
+                min = new int[(ticks + 1) * 3];
+                max = new int[(ticks + 1) * 3];
+                Arrays.fill(min, Integer.MAX_VALUE);
+            }
+            finished ++;
+            for (int t = 0; t <= ticks; t++) {
+                // If the replica ended early because nobody was infected, its last counts are used for the rest of the ticks
+                int tick = Math.min(t, history.size() - 1);
+                for (int state = 0; state < 3; state++) {
+                    int i = t * 3 + state, value = history.get(tick, state);
+                    double delta = value - mean[i];
+                    mean[i] += delta / finished;
+                    m2[i] += delta * (value - mean[i]);
+                    bins[i * BINS + bin(value)] ++;
+                    min[i] = Math.min(min[i], value);
+                    max[i] = Math.max(max[i], value);
+                }
+            }
+            return finished == replicas;
+        }
+
+        private int bin(int value) { // Returns the bin a count belongs in
+            return (int) ((long) value * BINS / (total + 1));
+        }
+
+        private double percentile(int i, double p) { // Estimates a percentile of the statistic at index i, interpolating within its bin
+            double rank = p * replicas, below = 0;
+            for (int b = 0; b < BINS; b++) {
+                int n = bins[i * BINS + b];
+                if (n > 0 && below + n >= rank) return Math.min(Math.max((b + (rank - below) / n) * (total + 1) / BINS, min[i]), max[i]);
+                below += n;
+            }
+            return max[i];
+        }
+
+        private void write(int points) throws IOException { // Writes every tick of the statistics, then drops them
+            synchronized (writer) {
+                for (int t = 0; t <= ticks; t++) {
+                    writer.write(width + "," + height + "," + infectionDuration + "," + immunityDuration + "," + infectionChance + "," +
+                            startingCount[0] + "," + startingCount[1] + "," + startingCount[2] + "," + t + "," + replicas);
+                    for (int state = 0; state < 3; state++) {
+                        int i = t * 3 + state;
+                        writer.write("," + mean[i] + "," + (replicas > 1 ? m2[i] / (replicas - 1) : 0)); // Sample variance
+                        for (double p : PERCENTILES) writer.write("," + percentile(i, p));
+                    }
+                    writer.newLine();
+                }
+                writer.flush(); // Makes the combination visible straight away
+                written ++;
+                System.out.printf("Combination %d/%d done%n", written, points);
+            }
+            mean = m2 = null;
+            bins = min = max = null;
+        }
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ *  AS91907.Frame
+ *  Last Updated: 17/10/2026
+ *  Purpose: A copy of what a Simulation looked like at the end of a tick, for Renders to draw from on their own thread. The simulation only copies into it when a Render has asked for a new frame and isn't reading it, so drawing never holds up the simulation, and ticks in between frames are skipped.
+ *  The cells are kept in a Pyramid, whose level 0 is the engine's own rendered states, so the whole grid is only stored once. The engine only brings them up to date while the frame is locked, and each frame only marks the cells that changed since the last one.
+ *  Can also be filled from a trace by a Replay.
+ */
+
+package as91907;
+
+import java.util.Arrays;
+import java.util.concurrent.locks.ReentrantLock;
+
+public class Frame {
+    public final int ID; // ID of the simulation
+    public final int WIDTH, HEIGHT; // Size of the simulation
+    public final Pyramid pyramid; // The rendered state of each cell, at index x * HEIGHT + y of level 0, and its levels of detail. Brought up to date by whichever Render draws the cells
+    public final int[] count = new int[3]; // The total counts of each state
+    public final int[] low = new int[3], high = new int[3]; // The lowest and highest count of each state over the ticks since the last frame, so charts can show the ticks that were skipped
+    public final int total; // Total population
+    public int ticks; // Number of ticks remaining
+    public long tick; // Number of ticks run
+
+    public volatile boolean wanted = true; // Whether the Renders are ready for a new frame
+    public final ReentrantLock lock = new ReentrantLock(); // Held while the frame is being written or read
+    private CellBits pending; // The cells that have changed in the simulation since the last frame. Only used by the simulation's thread
+    private final int[] lowest = new int[3], highest = new int[3]; // The lowest and highest counts since they were last copied. Only used by the simulation's thread
+
+    public Frame(int id, int width, int height, int total) {
+        this(id, width, height, total, null);
+    }
+
+    private Frame(int id, int width, int height, int total, byte[] cells) { // Uses cells as level 0 of the Pyramid, or its own if null
+        ID = id;
+        WIDTH = width;
+        HEIGHT = height;
+        this.total = total;
+        pyramid = new Pyramid(width, height, cells);
+    }
+
+    public Frame(Simulation s) { // Creates a frame of a simulation's current state, and starts tracking its changed cells
+        this(s, s.engine.track());
+    }
+
+    private Frame(Simulation s, CellBits pending) { // Runs once the engine is tracking, so its rendered states exist to be level 0
+        this(s.ID, s.WIDTH, s.HEIGHT, s.count[0] + s.count[1] + s.count[2], s.engine.rendered);
+        this.pending = pending;
+        Arrays.fill(lowest, Integer.MAX_VALUE);
+        publish(s);
+    }
+
+    public void publish(Simulation s) { // Copies the simulation's current state in, if it has been asked for and nobody is reading. Runs on the simulation's thread
+        for (int i = 0; i < 3; i++) { // Counts are tracked every tick, even when there is no frame
+            lowest[i] = Math.min(lowest[i], s.count[i]);
+            highest[i] = Math.max(highest[i], s.count[i]);
+        }
+        if (!wanted || !lock.tryLock()) return; // Never waits, the next tick can try again
+        try {
+            // Brings level 0 up to date, and marks only the cells that have changed since the last frame
+            s.engine.collect();
+            for (int word = pending.next(0); word >= 0; word = pending.next(word + 1)) pyramid.mark(word, pending.take(word));
+            System.arraycopy(s.count, 0, count, 0, 3);
+            System.arraycopy(lowest, 0, low, 0, 3);
+            System.arraycopy(highest, 0, high, 0, 3);
+            Arrays.fill(lowest, Integer.MAX_VALUE);
+            Arrays.fill(highest, 0);
+            ticks = s.ticks;
+            tick = s.elapsed;
+            wanted = false; // Waits for the Renders to ask again
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,36 @@
+/*
+ *  AS91907.History
+ *  Last Updated: 17/10/2026
+ *  Purpose: Stores the total counts of each state at each tick in a single primitive array, so adding a tick doesn't create a new object.
+ */
+
+package as91907;
+
+import java.util.Arrays;
+
+public class History {
+    private int[] counts; // The count of state i at tick t is at index t * 3 + i
+    private int size = 0; // Number of ticks stored, including the starting state
+
+    public History(int capacity) { // Initialises with enough room for the given number of ticks
+        counts = new int[Math.max(capacity, 1) * 3];
+    }
+
+    public void add(int[] count) { // Adds a tick to the end
+        if (size * 3 == counts.length) counts = Arrays.copyOf(counts, counts.length * 2); // If full, double the capacity
+        System.arraycopy(count, 0, counts, size * 3, 3);
+        size ++;
+    }
+
+    public int size() { // Returns the number of ticks stored, including the starting state
+        return size;
+    }
+
+    public int get(int tick, int state) { // Returns the count of a state at a tick
+        return counts[tick * 3 + state];
+    }
+
+    public int last(int state) { // Returns the count of a state at the latest tick
+        return counts[(size - 1) * 3 + state];
+    }
+}
@@ -0,0 +1,159 @@
+/*
+ *  AS91907.HistoryWriter
+ *  Last Updated: 17/10/2026
+ *  Purpose: An Observer that streams the counts of each tick to a CSV file while a Simulation runs, so no history needs to be kept in memory, however long it runs.
+ *  Rows are written into one buffer while a background thread writes the other to a file next to the CSV. The total infected on the first row isn't known until the end, so the titles and first row are held back,
+ *  and once the simulation is done they are written to the CSV followed by every other row, copied over by the operating system. So the file is exactly the same as it has always been.
+ */
+
+package as91907;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.locks.LockSupport;
+
+public class HistoryWriter implements Observer {
+    private static final byte[] TITLES = ("Current Normal,Current Infected,Current Immune,Normal Change,Infected Change,Immune Change,Total Infected" + System.lineSeparator()).getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] NEWLINE = System.lineSeparator().getBytes(StandardCharsets.US_ASCII);
+    private static final int BUFFER = 1 << 16; // Size of each buffer in bytes
+    private static final int ROW = 6 * 12 + 2; // Most bytes a row can take, six signed ints with commas, and a newline
+    private static final long FLUSH_NANOS = 1_000_000_000; // Longest time a row waits in the buffer before being written, so the file keeps up with slow simulations
+
+    private final FileChannel out; // The CSV, which is only written once the total infected is known
+    private final FileChannel channel; // The file the rows after the first are streamed to, deleted once they are copied to the CSV
+    private final byte[] first; // The titles and first row, up to where the total infected goes
+    private final int[] previous = new int[3]; // The counts of the previous row, for the changes
+    private ByteBuffer filling; // The buffer rows are being written into
+    private ByteBuffer spare; // The other buffer, which is being written or waiting to be filled
+    private volatile ByteBuffer writing; // The buffer the background thread has to write, null once it is written
+    private volatile boolean closed; // Whether the background thread should stop once everything is written
+    private volatile Thread waiter; // The thread waiting for the background thread, if any
+    private final Thread writer; // The background thread
+    private long handed; // The time the last buffer was handed to the background thread
+    public volatile IOException error; // The first error writing the file, if any
+
+    public HistoryWriter(Simulation s, File file) throws IOException { // Opens the files, and keeps the titles and starting counts until the end
+        out = FileChannel.open(file.toPath(), StandardOpenOption.WRITE, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING); // Opened now, so a file that can't be written fails straight away
+        channel = FileChannel.open(Path.of(file.getPath() + ".part"), StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.DELETE_ON_CLOSE);
+        filling = ByteBuffer.allocateDirect(BUFFER);
+        spare = ByteBuffer.allocateDirect(BUFFER);
+        // Writes the titles of each column
+        filling.put(TITLES);
+        // Writes the first row (starting values, no changes), up to the total infected
+        for (int i = 0; i < 3; i++) {
+            put(s.count[i]);
+            filling.put((byte) ',');
+            previous[i] = s.count[i];
+        }
+        filling.put("0,0,0,".getBytes(StandardCharsets.US_ASCII));
+        first = new byte[filling.position()];
+        filling.flip().get(first); // Held back, and the buffer is started again for the other rows
+        filling.clear();
+
+        writer = new Thread(this::write, "History Writer " + s.ID);
+        writer.setDaemon(true); // Doesn't keep the program open, done() waits for it instead
+        writer.start();
+        handed = System.nanoTime();
+    }
+
+    @Override
+    public void ticked(Simulation s) { // Writes the current and changed values
+        for (int i = 0; i < 3; i++) {
+            put(s.count[i]);
+            filling.put((byte) ',');
+        }
+        for (int i = 0; i < 3; i++) {
+            put(s.count[i] - previous[i]);
+            if (i < 2) filling.put((byte) ',');
+            previous[i] = s.count[i];
+        }
+        filling.put(NEWLINE);
+        if (filling.remaining() < ROW || System.nanoTime() - handed > FLUSH_NANOS) hand(); // If the next row might not fit, or rows have waited long enough
+    }
+
+    @Override
+    public void done(Simulation s) { // Writes everything left, then writes the CSV with the total infected, and closes the files
+        try {
+            close(s.infections);
+        } catch (IOException e) {
+            if (error == null) error = e;
+        }
+    }
+
+    private void close(int infections) throws IOException {
+        hand();
+        waitForWriter(); // Waits for the last buffer to be written
+        closed = true;
+        LockSupport.unpark(writer);
+        try {
+            // Writes the titles and the first row, with the total infected
+            filling.put(first);
+            put(infections);
+            filling.put(NEWLINE);
+            filling.flip();
+            while (filling.hasRemaining()) out.write(filling);
+            // Copies every other row after them, without reading them into memory
+            long size = channel.size();
+            for (long copied = 0; copied < size; ) copied += channel.transferTo(copied, size - copied, out);
+        } finally {
+            channel.close();
+            out.close();
+        }
+        if (error != null) throw error;
+    }
+
+    private void hand() { // Gives the filled buffer to the background thread, and carries on with the other one
+        waitForWriter(); // Only waits if the file is being written slower than the simulation is filling it
+        ByteBuffer full = filling;
+        filling = spare;
+        spare = full;
+        full.flip();
+        writing = full;
+        LockSupport.unpark(writer); // Wakes the background thread
+        handed = System.nanoTime();
+    }
+
+    private void waitForWriter() { // Waits until the background thread has nothing left to write
+        waiter = Thread.currentThread();
+        while (writing != null) LockSupport.park(this);
+    }
+
+    private void write() { // Writes each buffer it is handed to the file. Runs on the background thread
+        while (true) {
+            ByteBuffer buffer = writing;
+            if (buffer == null) { // If there is nothing to write
+                if (closed) return;
+                LockSupport.park(this); // Waits to be handed another buffer
+                continue;
+            }
+            try {
+                while (buffer.hasRemaining()) channel.write(buffer);
+            } catch (IOException e) { // Keeps going, so the simulation is never left waiting, and reports it at the end
+                if (error == null) error = e;
+            }
+            buffer.clear();
+            writing = null;
+            LockSupport.unpark(waiter); // Wakes the simulation's thread if it is waiting
+        }
+    }
+
+    private void put(int value) { // Writes an int as text into the buffer, without creating a String
+        if (value < 0) {
+            filling.put((byte) '-');
+            value = -value;
+        }
+        int digits = 1;
+        for (int rest = value / 10; rest > 0; rest /= 10) digits ++; // Counts the digits
+        int end = filling.position() + digits;
+        for (int i = end - 1; i >= end - digits; i--) { // Writes the digits from the last to the first
+            filling.put(i, (byte) ('0' + value % 10));
+            value /= 10;
+        }
+        filling.position(end);
+    }
+}
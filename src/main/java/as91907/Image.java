@@ -4,6 +4,8 @@
  *  Purpose: An Image that stores a custom drawing function, for use in Renders.
  */
 
+package as91907;
+
 import java.awt.Graphics;
 import java.awt.image.BufferedImage;
 
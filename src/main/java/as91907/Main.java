@@ -1,24 +1,40 @@
 /*
  *  AS91907.Main
- *  Last Updated: 07/08/2025
+ *  Last Updated: 17/10/2026
  *  Purpose: A static class that creates a window for initialising simulations.
  */
 
+package as91907;
+
 import java.awt.Color;
 import java.awt.Container;
 import java.awt.GridLayout;
 import java.awt.Toolkit;
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
 import javax.swing.BorderFactory;
 import javax.swing.JButton;
+import javax.swing.JCheckBox;
 import javax.swing.JColorChooser;
+import javax.swing.JComboBox;
+import javax.swing.JFileChooser;
 import javax.swing.JFrame;
 import javax.swing.JMenuBar;
 import javax.swing.JMenuItem;
+import javax.swing.JOptionPane;
 import javax.swing.JPanel;
+import javax.swing.JProgressBar;
 import javax.swing.JTextField;
 import javax.swing.KeyStroke;
+import javax.swing.SwingUtilities;
 import javax.swing.WindowConstants;
 import javax.swing.colorchooser.AbstractColorChooserPanel;
+import javax.swing.filechooser.FileNameExtensionFilter;
 
 public class Main {
     // Labels for different kinds of states in the simulation.
@@ -42,6 +58,11 @@ public class Main {
 
     private static final Container[] panes = new Container[3]; // Separate panes for the contents of the main window to be added to
     private static final JMenuItem[] tabs = new JMenuItem[3]; // Tabs in the menu bar to switch panes and highlight errors
+    private static final ExecutorService LAUNCHER = Executors.newCachedThreadPool(r -> { // Creates the simulations being launched, a thread each, so they can be created at once
+        Thread thread = new Thread(r, "Launcher");
+        thread.setDaemon(true); // Doesn't keep the program open
+        return thread;
+    });
 
 
     public static void main(String[] args) {
@@ -58,7 +79,7 @@ public class Main {
             panes[i].setLayout(switch (i) { // Sets the number of rows and columns of each pane
                 case COLOURS -> new GridLayout(2,2);
                 case PARAMETERS -> new GridLayout(2,4);
-                case LAUNCH -> new GridLayout(1,3);
+                case LAUNCH -> new GridLayout(1,7);
                 default -> throw new IllegalStateException();
             });
         }
@@ -108,7 +129,7 @@ public class Main {
         }
 
         //noinspection rawtypes
-        Panel[] panels = new Panel[10]; // Initialises all the input panels
+        Panel[] panels = new Panel[11]; // Initialises all the input panels
         // Inputs in the parameters tab
         panels[0] = new IntPanel(PARAMETERS, "Width", 256, 1);
         panels[1] = new IntPanel(PARAMETERS, "Height", 256, 1);
@@ -121,6 +142,13 @@ public class Main {
         // Inputs in the launch tab
         panels[8] = new BlankIntPanel(LAUNCH, "Ticks", null, -1,-1);
         panels[9] = new BlankIntPanel(LAUNCH, "Tick Speed", null, 0, 0);
+        panels[10] = new SeedPanel(LAUNCH, "Seed");
+        JComboBox<String> engine = new JComboBox<>(Arrays.copyOf(Engine.NAMES, Engine.CLUSTER)); // Chooses how the simulation stores its agents. Every engine before Cluster, which needs workers
+        engine.setBorder(BorderFactory.createTitledBorder("Engine"));
+        panes[LAUNCH].add(engine);
+        JCheckBox checkpoint = new JCheckBox("Checkpoint"); // Whether to save a checkpoint every minute, which is deleted if the simulation finishes
+        checkpoint.setToolTipText("Saves the simulation every minute, so it can be restored after a crash or an early close");
+        panes[LAUNCH].add(checkpoint);
 
         JButton launch = new JButton("Launch"); // Creates a launch button
         launch.addActionListener(l -> { // Adds an action listener:
@@ -131,7 +159,8 @@ public class Main {
                 values[i] = panels[i].read(); // Reads its value
                 if (values[i] == null) valid = false; // If the value was rejected, the input was invalid
             }
-            if (valid) new Simulation( // If valid, launch a simulation
+            char type = (char) engine.getSelectedIndex(); // Read here, as Swing's components can only be used on its thread
+            if (valid) launch(window, "launch", checkpoint.isSelected(), () -> new Simulation( // If valid, launch a simulation
                     (int) values[0],
                     (int) values[1],
                     (int) values[2],
@@ -143,17 +172,71 @@ public class Main {
                             (int) values[7]
                     },
                     (int) values[8],
-                    (int) values[9]
-            ).start();
+                    (int) values[9],
+                    (long) values[10],
+                    type
+            ));
             else window.repaint(); // Otherwise, update window to make highlights visible
         });
         panes[LAUNCH].add(launch); // Adds the launch button to the launch tab
+
+        JButton restore = new JButton("Restore"); // Carries on a simulation from a checkpoint, with its own parameters
+        JFileChooser chooser = new JFileChooser(new File(".")); // Starts in the working directory, where the checkpoints are saved
+        chooser.setFileFilter(new FileNameExtensionFilter("Checkpoints", "checkpoint"));
+        restore.addActionListener(l -> {
+            if (chooser.showOpenDialog(window) == JFileChooser.APPROVE_OPTION) {
+                File file = chooser.getSelectedFile();
+                launch(window, "restore", checkpoint.isSelected(), () -> new Simulation(Checkpoint.read(file)));
+            }
+        });
+        panes[LAUNCH].add(restore);
         window.setContentPane(panes[LAUNCH]); // Defaults the window to the launch tab
         window.setSize(1260,563); // Smallest size that fits the colour choosers
         window.setDefaultCloseOperation(WindowConstants.EXIT_ON_CLOSE);
         window.setVisible(true);
     }
 
+    private static void launch(JFrame window, String action, boolean checkpoint, Callable<Simulation> create) { // Creates a simulation on a background thread, showing a progress bar until it is ready, then opens its GUI, checkpointing it if asked. Several can be created at once
+        JProgressBar progress = new JProgressBar();
+        progress.setIndeterminate(true);
+        progress.setStringPainted(true);
+        progress.setString("Creating a simulation...");
+        panes[LAUNCH].add(progress);
+        panes[LAUNCH].revalidate();
+        LAUNCHER.execute(() -> {
+            Simulation created = null;
+            String problem = null;
+            try {
+                created = create.call(); // Creating the agents of a big simulation takes a while, so is kept off Swing's thread
+            } catch (OutOfMemoryError e) {
+                problem = "Not enough memory";
+            } catch (Exception e) { // If the checkpoint can't be read, or the grid is too big for the engine
+                problem = e.getMessage();
+            }
+            Simulation s = created;
+            String reason = problem;
+            SwingUtilities.invokeLater(() -> {
+                panes[LAUNCH].remove(progress);
+                panes[LAUNCH].revalidate();
+                panes[LAUNCH].repaint();
+                if (s == null) {
+                    JOptionPane.showMessageDialog(window, "Could not " + action + " the simulation: " + reason);
+                    return;
+                }
+                try {
+                    new Viewer(s, checkpoint); // Opens the GUI for the simulation
+                    s.start();
+                } catch (IllegalArgumentException e) { // If the grid is too big to be shown
+                    s.abandon(); // Frees the engine, which can hold native memory the garbage collector never frees, and anything already watching it
+                    JOptionPane.showMessageDialog(window, "Could not launch the simulation: " + e.getMessage());
+                } catch (IOException e) { // If the CSV can't be streamed anywhere, or the checkpoint can't be created, don't run it
+                    s.abandon();
+                    JOptionPane.showMessageDialog(window, "Could not create a file for the simulation's history or checkpoints: " + e.getMessage());
+                }
+            });
+        });
+    }
+
     /*
      *  AS91907.Main.Panel
      *  Last Updated: 01/08/2025
@@ -221,6 +304,22 @@ public class Main {
         }
     }
 
+    /*
+     *  AS91907.Main.SeedPanel
+     *  Last Updated: 17/10/2026
+     *  Purpose: Panel designed for seeds. Accepts any long, and picks a random seed when the input is left blank.
+     */
+    private static class SeedPanel extends Panel <Long> { // Panel designed for seeds. Random when blank
+        private SeedPanel(char pane, String title) {
+            super(pane, title, null);
+        }
+        @Override
+        Long get() throws NumberFormatException {
+            if (getText().isBlank()) return ThreadLocalRandom.current().nextLong(); // If blank, pick a random seed
+            return Long.parseLong(getText()); // Otherwise, try to parse
+        }
+    }
+
     /*
      *  AS91907.Main.DoublePanel
      *  Last Updated: 01/08/2025
@@ -0,0 +1,168 @@
+/*
+ *  AS91907.Metrics
+ *  Last Updated: 17/10/2026
+ *  Purpose: Times each phase of a Simulation's ticks, and measures its ticks and agents per second. Shown over JMX, and optionally logged every so often.
+ *  Only one tick in SAMPLE is timed, so it costs almost nothing, and a simulation without Metrics only checks that it has none.
+ */
+
+package as91907;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.AtomicLongArray;
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+public class Metrics implements MetricsMBean, Observer {
+    public static final int SAMPLE = 16; // Ticks between timed ticks. A power of two
+    private static final long WINDOW_NANOS = 1_000_000_000; // Shortest time the speed is measured over
+
+    // Labels for the phases
+    public static final char SPREAD = 0;
+    public static final char MOVE = 1;
+    public static final char FINISH_MOVEMENT = 2;
+    public static final char UPDATE = 3;
+    public static final char OBSERVERS = 4;
+    public static final String[] PHASES = new String[]{"spread", "move", "finishMovement", "update", "observers"}; // Names of each phase, for the log
+
+    private final Simulation s;
+    private final int agents;
+    private final ObjectName name; // The name it is registered with
+    private final long logNanos; // Time between log lines, or 0 to not log
+    private final AtomicLongArray phases = new AtomicLongArray(PHASES.length); // Average nanoseconds of each phase, read by JMX's threads
+    private volatile double ticksPerSecond;
+    private long windowStart, windowTick; // When and at which tick the speed started being measured
+    private long nextLog; // When to log next
+
+    public Metrics(Simulation s, int logSeconds) { // Starts timing a simulation, which must not have started yet, logging every logSeconds if above 0
+        this.s = s;
+        agents = s.count[0] + s.count[1] + s.count[2];
+        logNanos = logSeconds * 1_000_000_000L;
+        try {
+            name = new ObjectName("as91907:type=Simulation,id=" + s.ID);
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this, name);
+        } catch (JMException e) { // Only if the ID is taken, which it never is
+            throw new IllegalStateException(e);
+        }
+        windowStart = System.nanoTime();
+        windowTick = s.elapsed;
+        nextLog = windowStart + logNanos;
+        s.metrics = this;
+        s.addObserver(this);
+    }
+
+    public boolean timing(long tick) { // Whether to time a tick
+        return (tick & (SAMPLE - 1)) == 0;
+    }
+
+    public long phase(char phase, long since) { // Adds the time since a phase started to its average, returning the time now, when the next phase starts
+        long now = System.nanoTime();
+        long average = phases.get(phase);
+        phases.set(phase, average == 0 ? now - since : average + (now - since - average) / 4); // Each timed tick counts for a quarter of the average, so it follows changes quickly
+        if (phase == OBSERVERS) timed(now); // The last phase of a tick
+        return now;
+    }
+
+    private void timed(long now) { // Updates the speed once it has been measured for long enough, and logs if it is time to
+        if (now - windowStart >= WINDOW_NANOS) {
+            ticksPerSecond = (s.elapsed - windowTick) * 1e9 / (now - windowStart);
+            windowStart = now;
+            windowTick = s.elapsed;
+        }
+        if (logNanos > 0 && now >= nextLog) {
+            nextLog = now + logNanos;
+            log();
+        }
+    }
+
+    private void log() { // Prints the metrics on a single line
+        StringBuilder line = new StringBuilder(String.format("Simulation %d: tick %d, %.1f ticks/s, %.0f agents/s, %d infections", s.ID, s.elapsed, ticksPerSecond, getAgentsPerSecond(), s.infections));
+        for (int i = 0; i < PHASES.length; i++) line.append(String.format(", %s %.3f ms", PHASES[i], phases.get(i) / 1e6));
+        System.out.println(line);
+    }
+
+    @Override
+    public void ticked(Simulation s) {}
+
+    @Override
+    public void done(Simulation s) { // Logs the final metrics, and stops showing them
+        if (logNanos > 0) log();
+        try {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(name);
+        } catch (JMException ignored) {} // Already gone
+    }
+
+    @Override
+    public String getEngine() {
+        return Engine.NAMES[s.ENGINE];
+    }
+
+    @Override
+    public long getSeed() {
+        return s.SEED;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return s.running;
+    }
+
+    @Override
+    public long getTick() {
+        return s.elapsed;
+    }
+
+    @Override
+    public int getInfections() {
+        return s.infections;
+    }
+
+    @Override
+    public int getNormal() {
+        return s.count[0];
+    }
+
+    @Override
+    public int getInfected() {
+        return s.count[1];
+    }
+
+    @Override
+    public int getImmune() {
+        return s.count[2];
+    }
+
+    @Override
+    public double getTicksPerSecond() {
+        return ticksPerSecond;
+    }
+
+    @Override
+    public double getAgentsPerSecond() {
+        return ticksPerSecond * agents;
+    }
+
+    @Override
+    public long getSpreadNanos() {
+        return phases.get(SPREAD);
+    }
+
+    @Override
+    public long getMoveNanos() {
+        return phases.get(MOVE);
+    }
+
+    @Override
+    public long getFinishMovementNanos() {
+        return phases.get(FINISH_MOVEMENT);
+    }
+
+    @Override
+    public long getUpdateNanos() {
+        return phases.get(UPDATE);
+    }
+
+    @Override
+    public long getObserverNanos() {
+        return phases.get(OBSERVERS);
+    }
+}
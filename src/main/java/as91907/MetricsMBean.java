@@ -0,0 +1,30 @@
+/*
+ *  AS91907.MetricsMBean
+ *  Last Updated: 17/10/2026
+ *  Purpose: The attributes of a running Simulation shown over JMX, as as91907:type=Simulation,id=[ID], for tools like JConsole. Implemented by Metrics.
+ */
+
+package as91907;
+
+public interface MetricsMBean {
+    // The simulation
+    String getEngine();
+    long getSeed();
+    boolean isRunning();
+    long getTick(); // Number of ticks run
+    int getInfections(); // Number of infections so far
+    int getNormal();
+    int getInfected();
+    int getImmune();
+
+    // Speed, measured over about a second, or the time between timed ticks if that is longer
+    double getTicksPerSecond();
+    double getAgentsPerSecond(); // Agents run through every phase each second
+
+    // Average time of each phase of a tick in nanoseconds, from the recently timed ticks
+    long getSpreadNanos();
+    long getMoveNanos();
+    long getFinishMovementNanos();
+    long getUpdateNanos();
+    long getObserverNanos(); // The Observers, which publish frames for the renders, write the CSV and so on
+}
@@ -0,0 +1,12 @@
+/*
+ *  AS91907.Observer
+ *  Last Updated: 17/10/2026
+ *  Purpose: Something that watches a Simulation, being told when each tick finishes and when the simulation ends. Allows the GUI to be optional.
+ */
+
+package as91907;
+
+public interface Observer {
+    void ticked(Simulation s); // Runs after each tick, once the counts are up to date, on whichever thread is running the simulation. Never runs at the same time as another tick
+    void done(Simulation s); // Runs once the simulation has finished, on the thread that ran its last tick
+}
@@ -0,0 +1,245 @@
+/*
+ *  AS91907.ParallelEngine
+ *  Last Updated: 17/10/2026
+ *  Purpose: An ArrayEngine that runs each phase of a tick on every core. The grid is split into strips of columns, and the agents into ranges, which are run on a shared ForkJoinPool.
+ */
+
+package as91907;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.IntConsumer;
+
+public class ParallelEngine extends ArrayEngine {
+    private static final ForkJoinPool POOL = new ForkJoinPool(Runtime.getRuntime().availableProcessors()); // Shared by every ParallelEngine
+    private static final VarHandle BITS = MethodHandles.arrayElementVarHandle(long[].class); // Allows atomic writes to pending and dirty, as agents in different parts can share a word, and every part shares dirty's summary
+
+    private static final int PARTS = 256; // Most strips and ranges each phase is split into. Doesn't depend on the number of cores, so the same seed gives the same history on any machine
+
+    private final int parts; // Number of strips and ranges each phase is split into
+    private final int[] strip; // Strip p covers the columns strip[p] to strip[p + 1] - 1
+    private final int[] range; // Range p covers the agents range[p] to range[p + 1] - 1. Multiples of 64, so that no two ranges share a word of pending
+    private final int[][] tallies; // The counts and infections of each range during update, merged after all ranges finish
+    private final Rng[] randoms; // Random numbers for each part, split from the engine's own so that no two threads share one
+
+    // Spare arrays for the counting sort to write into, swapped with order and start after each tick
+    private int[] nextOrder;
+    private int[] nextStart;
+
+    public ParallelEngine(Simulation s, int[] startingCount) {
+        super(s, startingCount, false); // Always dense, as each strip sorts its own cells
+        parts = Math.min(s.WIDTH, PARTS); // Many strips per core, so that uneven strips can be balanced by work stealing
+        randoms = new Rng[parts];
+        for (int p = 0; p < parts; p++) randoms[p] = random.split();
+        strip = new int[parts + 1];
+        range = new int[parts + 1];
+        split();
+        tallies = new int[parts][4];
+        nextOrder = new int[agents];
+        nextStart = new int[cells + 1];
+        tasks = new Part[parts];
+        for (int p = 0; p < parts; p++) tasks[p] = new Part(p);
+    }
+
+    public ParallelEngine(Simulation s, Checkpoint c) { // Restores the agents of a checkpoint, and the seeds of every part
+        super(s, c, false);
+        parts = Math.min(s.WIDTH, PARTS);
+        randoms = new Rng[parts];
+        for (int p = 0; p < parts; p++) randoms[p] = new Rng(c.seeds[p + 1]);
+        strip = new int[parts + 1];
+        range = new int[parts + 1];
+        split();
+        tallies = new int[parts][4];
+        nextOrder = new int[agents];
+        nextStart = new int[cells + 1];
+        tasks = new Part[parts];
+        for (int p = 0; p < parts; p++) tasks[p] = new Part(p);
+    }
+
+    private void split() { // Splits the grid into strips and the agents into ranges
+        for (int p = 0; p <= parts; p++) {
+            strip[p] = (int) ((long) s.WIDTH * p / parts);
+            range[p] = Math.min((int) ((long) agents * p / parts) & ~63, agents);
+        }
+        range[parts] = agents;
+    }
+
+    @Override
+    protected long[] seeds() { // The engine's own seed, then each part's
+        long[] seeds = new long[parts + 1];
+        seeds[0] = random.seed;
+        for (int p = 0; p < parts; p++) seeds[p + 1] = randoms[p].seed;
+        return seeds;
+    }
+
+    // The work each part does in each phase. Stored in fields, so they are only created once
+    private final IntConsumer spreading = this::spread;
+    private final IntConsumer moving = this::move;
+    private final IntConsumer counting = this::count;
+    private final IntConsumer placing = this::place;
+    private final IntConsumer updating = this::update;
+
+    // Reusable tasks for running the phases
+    private IntConsumer phase; // The work for the parts to do
+    private final Part[] tasks; // One task for each part
+    private final Phase all = new Phase(); // Runs every task
+    private Thread waiter; // The thread waiting for the phase to finish
+    private volatile boolean finished; // Whether every task of the phase has finished
+    private volatile Throwable failure; // The first exception thrown by a task of the phase, rethrown on the simulation's thread
+
+    @Override
+    public void spread() {
+        forEachPart(spreading);
+    }
+
+    @Override
+    protected void infect(int i) {
+        BITS.getAndBitwiseOr(pending, i >> 6, 1L << i);
+    }
+
+    @Override
+    protected void mark(int x, int y) {
+        int c = x * s.HEIGHT + y, word = c >> 6;
+        BITS.getAndBitwiseOr(dirty.words, word, 1L << c);
+        if ((dirty.summary[word >> 6] & (1L << word)) == 0) BITS.getAndBitwiseOr(dirty.summary, word >> 6, 1L << word); // Checked first, so each summary bit is only written once a tick, rather than every part fighting over the same few words. Nothing clears it during a phase, so a set bit is never stale
+    }
+
+    @Override
+    public void move() {
+        forEachPart(moving);
+    }
+
+    @Override
+    public void finishMovement() { // Counting sort of the agents by cell, where each strip only writes to its own cells
+        // Agents can only move one column, so the agents now in a strip were either in it before, or in the closest column of the strips on either side
+        forEachPart(counting);
+        for (int p = 0, offset = 0; p < parts; p++) { // Works out where each strip starts in the new order
+            int total = tallies[p][0];
+            tallies[p][0] = offset;
+            offset += total;
+        }
+        forEachPart(placing);
+        nextStart[cells] = agents;
+        // Swaps the new arrays in
+        int[] swap = order;
+        order = nextOrder;
+        nextOrder = swap;
+        swap = start;
+        start = nextStart;
+        nextStart = swap;
+    }
+
+    @Override
+    public void update(int[] count) {
+        forEachPart(updating);
+        for (int[] tally : tallies) { // Merges the tallies
+            for (int i = 0; i < 3; i++) count[i] += tally[i];
+            s.infections += tally[3];
+        }
+    }
+
+    private void spread(int p) { // Spreads infections in a strip. Cells only contain agents from their own strip
+        spread(strip[p] * s.HEIGHT, strip[p + 1] * s.HEIGHT, randoms[p]);
+    }
+
+    private void move(int p) { // Moves the agents in a range
+        move(range[p], range[p + 1], randoms[p]);
+    }
+
+    private void count(int p) { // Counts the agents now in each cell of a strip, and the strip's total
+        final int height = s.HEIGHT, first = strip[p] * height, last = strip[p + 1] * height;
+        for (int c = first; c < last; c++) nextStart[c] = 0;
+        int total = 0;
+        for (int j = start[Math.max(first - height, 0)], end = start[Math.min(last + height, cells)]; j < end; j++) {
+            int i = order[j], c = x[i] * height + y[i];
+            if (c >= first && c < last) {
+                nextStart[c] ++;
+                total ++;
+            }
+        }
+        tallies[p][0] = total;
+    }
+
+    private void place(int p) { // Turns the counts of a strip into the end of each cell's range, then places each agent, moving each cell's end back to its start
+        final int height = s.HEIGHT, first = strip[p] * height, last = strip[p + 1] * height;
+        for (int c = first, end = tallies[p][0]; c < last; c++) {
+            end += nextStart[c];
+            nextStart[c] = end;
+        }
+        for (int j = start[Math.max(first - height, 0)], end = start[Math.min(last + height, cells)]; j < end; j++) {
+            int i = order[j], c = x[i] * height + y[i];
+            if (c >= first && c < last) nextOrder[-- nextStart[c]] = i;
+        }
+    }
+
+    private void update(int p) { // Updates the agents in a range. Each range counts into its own tally, so nothing is shared
+        int[] tally = tallies[p];
+        tally[0] = tally[1] = tally[2] = 0;
+        tally[3] = update(range[p], range[p + 1], tally);
+    }
+
+    private void forEachPart(IntConsumer action) { // Runs the action for every part in parallel, returning once they have all finished. Throws whatever a part threw, once they have all stopped
+        phase = action;
+        waiter = Thread.currentThread();
+        finished = false;
+        all.reinitialize(); // Allows the task to be run again
+        POOL.execute(all);
+        // Waits by parking rather than POOL.invoke, which creates a new node to wait on every time
+        while (!finished) LockSupport.park(this);
+        while (!all.isDone()) Thread.onSpinWait(); // The task is marked done just after it finishes, and must be before it can be reinitialised
+        Throwable t = failure;
+        if (t != null) { // Fails the tick, rather than carrying on with a half finished phase
+            failure = null;
+            if (t instanceof RuntimeException e) throw e;
+            if (t instanceof Error e) throw e;
+            throw new IllegalStateException(t);
+        }
+    }
+
+    private void failed(Throwable t) { // Keeps the first exception of the phase
+        if (failure == null) failure = t;
+    }
+
+    /*
+     *  AS91907.ParallelEngine.Phase
+     *  Last Updated: 17/10/2026
+     *  Purpose: Runs the task of every part, letting the ForkJoinPool spread them across its threads. Reused every phase, so no tasks are created each tick.
+     */
+    private class Phase extends RecursiveAction {
+        @Override
+        protected void compute() {
+            try {
+                for (Part task : tasks) task.reinitialize();
+                invokeAll(tasks);
+            } catch (Throwable t) {
+                failed(t);
+            } finally { // Always wakes the simulation's thread, which would otherwise wait forever
+                finished = true;
+                LockSupport.unpark(waiter);
+            }
+        }
+    }
+
+    /*
+     *  AS91907.ParallelEngine.Part
+     *  Last Updated: 17/10/2026
+     *  Purpose: Runs the current phase for a single part.
+     */
+    private class Part extends RecursiveAction {
+        private final int p; // The part to run
+        private Part(int p) {
+            this.p = p;
+        }
+        @Override
+        protected void compute() {
+            try {
+                phase.accept(p);
+            } catch (Throwable t) { // Caught here rather than by invokeAll, which would stop waiting for the other parts, which could still be running
+                failed(t);
+            }
+        }
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ *  AS91907.Person
+ *  Last Updated: 17/10/2026
+ *  Purpose: A unit of the simulation. Moves around the grid, has a state, and can infect others on the same tile.
+ */
+
+package as91907;
+
+public class Person {
+
+    private final Simulation s; // The simulation it came from
+    private final PersonEngine e; // The engine storing it
+
+    private int x, y; // Its position
+
+    private int state; // Internal state. == 0 -> normal, <= INFECTION_COOLDOWN -> infected, <= IMMUNITY_COOLDOWN immune, wraps back to 0
+    public char state() { // Converts internal state to an external state
+        if (state == 0) return Main.NORMAL;
+        if (state <= s.INFECTION_COOLDOWN) return Main.INFECTED;
+        return Main.IMMUNE;
+    }
+
+    private boolean infected = false; // Whether we will become infected this round
+    public Person next = null; // Persons are stored in linked lists, this is the pointer
+    public int cell; // The index of its cell in the engine's arrays, whose lists are at cell * 3 + state, set when it moves in
+
+    public Person(PersonEngine e, int x, int y, int state) { // Creates or restores a Person, leaving the engine to place it
+        this.e = e;
+        s = e.s;
+        this.x = x;
+        this.y = y;
+        this.state = state;
+    }
+    public void save(Checkpoint c, int i) { // Saves this Person as agent i of a checkpoint
+        c.cell[i] = (long) x * s.HEIGHT + y;
+        c.state[i] = state;
+    }
+    private void move(int i) { // Used internally for movement
+        switch (i) {
+                            // Stay still
+            case 1 -> y --; // Move up
+            case 2 -> x --; // Move left
+            case 3 -> y ++; // Move down
+            case 4 -> x ++; // Move right
+        }
+    }
+    public void move() { // Moves the person in a random direction
+        byte[] moves = Engine.MOVES[Engine.edges(x, y, s.WIDTH, s.HEIGHT)]; // Looks up the moves that are possible from here
+        byte move = moves[e.random.nextInt(moves.length)]; // Picks a random movement choice out of the available options
+        if (move != 0 && e.dirty != null) { // If we are leaving our cell and the cells are being tracked, mark both cells as changed
+            e.mark(x, y);
+            move(move);
+            e.mark(x, y);
+        } else move(move); // Executes the move
+        reposition(); // Reassigns itself to the movement array
+    }
+    public int slot() { // Returns the index of its cell in the engine's movement array, giving it a slot on a sparse grid
+        return e.cell(x, y);
+    }
+    public void push() { // Puts this Person at the head of the list for its state of its cell in movement
+        int list = cell * 3 + state();
+        next = e.movement[list];
+        e.movement[list] = this;
+    }
+    private void reposition() { // Moves this person into the list for its state of its cell in the movement array
+        cell = e.cell(x, y); // Finds the cell, which stays at the same index when movement becomes position
+        push();
+    }
+    public void spread(double chance) { // Handles spreading infection. Run on the first Person of a cell's NORMAL list, with the chance of being infected by any of the INFECTED Persons in the cell
+        for (Person p = this; p != null; p = p.next) if (e.random.nextDouble() < chance) p.infected = true; // Gives each NORMAL Person in the list its chance
+    }
+
+    public char update() { // Handles updating states
+        char previous = state(); // Stores our state, to tell if it changes
+        if (infected) { // If we have been infected
+            infected = false; // Reset the flag
+            state = 1; // Set our state to 1 (start of infected)
+            s.infections ++; // Increment the infections tally
+        } else if (state > 0) { // Otherwise, if we are not NORMAL
+            state ++; // Increment our state
+            if (state > s.IMMUNITY_COOLDOWN) state = 0; // If we have reached the end of our immunity, reset to NORMAL
+        }
+        char current = state();
+        if (current != previous && e.dirty != null) e.mark(x, y); // If our state changed and the cells are being tracked, mark our cell as changed
+        return current; // Returns our state, for tallying by the simulation
+    }
+}
@@ -0,0 +1,182 @@
+/*
+ *  AS91907.PersonEngine
+ *  Last Updated: 17/10/2026
+ *  Purpose: An Engine that stores each agent as a Person, in three linked lists for each cell, one for each state, with the number of People in each.
+ *  Moving into a cell only puts a Person at the head of its state's list, spreading only looks at the NORMAL list, and the rendered state only looks at the counts.
+ */
+
+package as91907;
+
+import java.util.Arrays;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+
+public class PersonEngine extends Engine {
+    private static final int CHUNK = 1 << 16; // People made by each parallel task when starting. Doesn't depend on the number of cores, so the same seed gives the same People on any machine
+
+    // The first Person of each cell's list of each state, at index list * 3 + state, where state is NORMAL, INFECTED or IMMUNE. On a dense grid, the list of cell (x, y) is x * HEIGHT + y. On a sparse grid, it is the cell's slot in the CellMap
+    public Person[] position; // Stores the People according to their positions
+    public Person[] movement; // People move here, into the list of their state, then gets reassigned to position.
+    public int[] counts; // The number of People in each list of position, at the same index as its first Person. Brought up to date by update
+    public CellMap positionCells, movementCells; // The slots of the occupied cells of each, on a sparse grid. Null on a dense grid
+    public final Rng random; // Random numbers for every Person, seeded from the simulation's seed
+
+    private final Person[] heads = new Person[3], tails = new Person[3]; // The lists of a cell being rebuilt by update
+
+    public PersonEngine(Simulation s, int[] startingCount, boolean sparse) {
+        super(s);
+        random = new Rng(s.SEED);
+        // Initialisation of cells
+        int agents = startingCount[Main.NORMAL] + startingCount[Main.INFECTED] + startingCount[Main.IMMUNE];
+        cells(agents, sparse);
+        // Creates the People in the order NORMAL, INFECTED, IMMUNE, in parallel chunks. Person i takes the two numbers after the first 2 * i, the same as if they were made one by one
+        Person[] people = new Person[agents];
+        long seed = random.seed;
+        IntStream.range(0, (agents + CHUNK - 1) / CHUNK).parallel().forEach(chunk -> {
+            Rng r = new Rng(seed);
+            r.jump(2L * chunk * CHUNK);
+            for (int i = chunk * CHUNK; i < Math.min(agents, (chunk + 1) * CHUNK); i++) {
+                int x = r.nextInt(s.WIDTH), y = r.nextInt(s.HEIGHT);
+                Person p = people[i] = new Person(this, x, y, i < startingCount[Main.NORMAL] ? 0 : i < startingCount[Main.NORMAL] + startingCount[Main.INFECTED] ? 1 : s.INFECTION_COOLDOWN + 1);
+                if (movementCells == null) p.cell = x * s.HEIGHT + y;
+            }
+        });
+        random.jump(2L * agents);
+        if (movementCells != null) for (Person p : people) p.cell = p.slot(); // Gives out the slots in the order the People were made, which isn't thread safe
+        for (Person p : people) p.push(); // Puts each Person at the head of its cell's list for its state
+        finishMovement(); // Gets everything prepared for the simulation to start
+        forEachRemaining(p -> counts[p.cell * 3 + p.state()] ++); // Counts each list, which update does from then on
+    }
+
+    public PersonEngine(Simulation s, Checkpoint c, boolean sparse) { // Restores the People of a checkpoint, in the same lists in the same order
+        super(s);
+        random = new Rng(c.seeds[0]);
+        cells(c.agents, sparse);
+        Person[] last = new Person[3]; // The end of each list of the cell being restored. Each cell was saved together
+        for (int i = 0; i < c.agents; i++) {
+            int x = (int) (c.cell[i] / s.HEIGHT), y = (int) (c.cell[i] % s.HEIGHT);
+            Person p = new Person(this, x, y, c.state[i]);
+            p.cell = positionCells == null ? (int) c.cell[i] : positionCells.slot(c.cell[i]);
+            int list = p.cell * 3 + p.state();
+            if (position[list] == null) position[list] = p; // Starts a new list
+            else last[p.state()].next = p; // Adds it to the end of the list
+            last[p.state()] = p;
+            counts[list] ++;
+        }
+        if (positionCells != null) positionCells.sort(); // Runs the cells in order, the same as a dense grid
+    }
+
+    private void cells(int agents, boolean sparse) { // Creates the three lists of every cell, or of as many cells as there are agents on a sparse grid
+        if (sparse) {
+            positionCells = new CellMap(agents, (long) s.WIDTH * s.HEIGHT);
+            movementCells = new CellMap(agents, (long) s.WIDTH * s.HEIGHT);
+            if (positionCells.slots * 3L > DENSE_CELLS) throw new IllegalArgumentException("Too many agents for a sparse grid");
+            position = new Person[positionCells.slots * 3];
+            movement = new Person[movementCells.slots * 3];
+        } else {
+            position = new Person[s.WIDTH * s.HEIGHT * 3];
+            movement = new Person[s.WIDTH * s.HEIGHT * 3];
+        }
+        counts = new int[position.length];
+    }
+
+    public int cell(int x, int y) { // Returns the index of a cell in movement, whose lists are at 3 times it, giving it one on a sparse grid
+        if (movementCells == null) return x * s.HEIGHT + y;
+        return movementCells.slot((long) x * s.HEIGHT + y);
+    }
+
+    @Override
+    public void spread() { // Spreads infections in each cell, giving each Person in its NORMAL list a single chance to be infected by any of its INFECTED
+        int lists = positionCells == null ? position.length / 3 : positionCells.size;
+        for (int i = 0; i < lists; i++) {
+            int c = (positionCells == null ? i : positionCells.used[i]) * 3;
+            int infected = counts[c + Main.INFECTED];
+            if (infected > 0 && position[c + Main.NORMAL] != null) position[c + Main.NORMAL].spread(chance(infected));
+        }
+    }
+
+    @Override
+    public void move() {
+        forEachRemaining(Person::move); // Changes positions of each Person
+    }
+
+    @Override
+    public void finishMovement() { // Runs after movement, swapping the position and movement arrays
+        Person[] old = position;
+        position = movement; // Copies the movement reference to position
+        movement = old; // Reuses the old positions for the next movement
+        if (movementCells == null) Arrays.fill(movement, null); // Clears movement
+        else { // Swaps the CellMaps too, only clearing the occupied cells
+            CellMap oldCells = positionCells;
+            positionCells = movementCells;
+            movementCells = oldCells;
+            for (int i = 0; i < movementCells.size; i++) Arrays.fill(movement, movementCells.used[i] * 3, movementCells.used[i] * 3 + 3, null);
+            movementCells.clear();
+            positionCells.sort(); // Runs the cells in order, the same as a dense grid
+        }
+    }
+
+    @Override
+    public void update(int[] count) { // Updates and counts each Person, rebuilding each cell's lists and counts so every Person is in the list of its new state, in the same order
+        int lists = positionCells == null ? position.length / 3 : positionCells.size;
+        for (int i = 0; i < lists; i++) {
+            int c = (positionCells == null ? i : positionCells.used[i]) * 3;
+            Arrays.fill(counts, c, c + 3, 0); // Counted again as they are added to their new lists, and cleared if everyone has moved out
+            for (int j = 0; j < 3; j++) {
+                for (Person p = position[c + j], next; p != null; p = next) {
+                    next = p.next; // Stored first, as adding it to a list changes it
+                    char state = p.update();
+                    count[state] ++;
+                    counts[c + state] ++;
+                    if (heads[state] == null) heads[state] = p; // Adds it to the end of its new list
+                    else tails[state].next = p;
+                    tails[state] = p;
+                }
+            }
+            for (int j = 0; j < 3; j++) {
+                position[c + j] = heads[j];
+                if (tails[j] != null) tails[j].next = null; // Ends the list
+                heads[j] = tails[j] = null;
+            }
+        }
+    }
+
+    @Override
+    public void save(Checkpoint c) { // Saves every Person in the order they are run
+        int[] i = new int[1]; // The next agent, in an array so the lambda can change it
+        forEachRemaining(p -> p.save(c, i[0] ++));
+        c.seeds = new long[]{random.seed};
+    }
+
+    private void forEachRemaining(Consumer<Person> action) { // Runs an action for each Person. Borrowed from java.util.Iterator.
+        // For each cell in position, in order, then each of its lists, NORMAL, INFECTED, IMMUNE. A sparse grid only has lists for the occupied cells
+        int lists = positionCells == null ? position.length / 3 : positionCells.size;
+        for (int i = 0; i < lists; i++) {
+            int c = (positionCells == null ? i : positionCells.used[i]) * 3;
+            for (int j = 0; j < 3; j++) {
+                Person p = position[c + j]; // Gets the start of each list
+                while (p != null) { // Loops through the list and does the action on each
+                    Person next = p.next;
+                    action.accept(p);
+                    p = next;
+                }
+            }
+        }
+    }
+
+    @Override
+    public char renderedState(int x, int y) { // Given a cell, returns the state that should be rendered, from the counts of its lists
+        // PRIORITY OF RENDERING:
+        // 1. INFECTED
+        // 2. NORMAL
+        // 3. IMMUNE
+        // 4. EMPTY
+        // update() keeps every Person in the list of its current state and counts them, so the counts are up to date after each tick, and no list needs walking.
+        int c = positionCells == null ? x * s.HEIGHT + y : positionCells.find((long) x * s.HEIGHT + y);
+        if (c < 0) return Main.EMPTY; // An empty cell of a sparse grid
+        if (counts[c * 3 + Main.INFECTED] > 0) return Main.INFECTED;
+        if (counts[c * 3 + Main.NORMAL] > 0) return Main.NORMAL;
+        if (counts[c * 3 + Main.IMMUNE] > 0) return Main.IMMUNE;
+        return Main.EMPTY;
+    }
+}
@@ -0,0 +1,104 @@
+/*
+ *  AS91907.Pyramid
+ *  Last Updated: 17/10/2026
+ *  Purpose: The cells of a Frame, with levels of detail for drawing grids bigger than the window. Level 0 is every cell, and each cell of level k + 1 is a 2 by 2 block of level k, showing the state with the highest priority in it, the same as Engine.renderedState: INFECTED, NORMAL, IMMUNE, EMPTY.
+ *  Only the cells that changed are set, and the levels above are kept up to date from them, only going up the levels while a block's state changes, so it costs time for the cells that changed, not the size of the grid.
+ *  Level 0 can be an Engine's rendered states, which the engine sets itself, so the whole grid is only stored once.
+ */
+
+package as91907;
+
+import java.util.Arrays;
+
+public class Pyramid {
+    private static final byte[] PRIORITY = new byte[4]; // The priority of each state, the highest winning
+    static {
+        PRIORITY[Main.EMPTY] = 0;
+        PRIORITY[Main.IMMUNE] = 1;
+        PRIORITY[Main.NORMAL] = 2;
+        PRIORITY[Main.INFECTED] = 3;
+    }
+
+    public final int levels; // Number of levels, the last being a single cell
+    public final int[] width, height; // The size of each level
+    public final byte[][] cells; // The state of each cell of each level, at index x * height + y
+    public final long[][] changed; // Bit c is set if cell c of a level has changed since it was last drawn. Cleared by whatever draws it
+    private final CellBits set; // The cells of level 0 that have been set since the levels above were last brought up to date
+
+    public Pyramid(int w, int h) { // Creates the levels of a w by h grid, with every cell EMPTY
+        this(w, h, null);
+    }
+
+    public Pyramid(int w, int h, byte[] level) { // Creates the levels of a w by h grid, using level as level 0, or with every cell EMPTY if it is null. The levels above start EMPTY, until the cells of level 0 are marked
+        int count = 1;
+        for (long x = w, y = h; x > 1 || y > 1; x = (x + 1) / 2, y = (y + 1) / 2) count ++;
+        levels = count;
+        width = new int[levels];
+        height = new int[levels];
+        cells = new byte[levels][];
+        changed = new long[levels][];
+        for (int k = 0; k < levels; k++) {
+            width[k] = k == 0 ? w : (width[k - 1] + 1) / 2;
+            height[k] = k == 0 ? h : (height[k - 1] + 1) / 2;
+            if (k == 0 && level != null) cells[k] = level;
+            else {
+                cells[k] = new byte[width[k] * height[k]];
+                Arrays.fill(cells[k], (byte) Main.EMPTY);
+            }
+            changed[k] = new long[(width[k] * height[k] + 63) >> 6];
+            Arrays.fill(changed[k], -1L); // Every cell needs to be drawn the first time
+        }
+        set = new CellBits((long) w * h);
+    }
+
+    public void set(int c, byte state) { // Sets the state of cell c of level 0, if it has changed, for update to take in. Runs with the frame locked
+        if (cells[0][c] == state) return;
+        cells[0][c] = state;
+        set.add(c);
+    }
+
+    public void mark(int word, long bits) { // Marks the cells of a word of level 0 that were already set by whatever shares it, for update to take in. Runs with the frame locked
+        set.add(word, bits);
+    }
+
+    public void update() { // Takes in the cells of level 0 that have been set since the last update, bringing the levels above up to date. Runs with the frame locked
+        long[] levelChanged = changed[0];
+        final int frameHeight = height[0];
+        for (int word = set.next(0); word >= 0; word = set.next(word + 1)) { // Only the words with cells that were set
+            long bits = set.take(word);
+            levelChanged[word] |= bits;
+            for (; bits != 0; bits &= bits - 1) { // For each set bit, clearing the lowest one each time
+                int c = (word << 6) + Long.numberOfTrailingZeros(bits);
+                int x = c / frameHeight, y = c % frameHeight;
+                for (int k = 1; k < levels; k++) { // Goes up the levels while the block containing the cell changes
+                    x >>= 1;
+                    y >>= 1;
+                    byte state = block(k, x, y);
+                    int b = x * height[k] + y;
+                    if (cells[k][b] == state) break; // Nothing above can change either
+                    cells[k][b] = state;
+                    changed[k][b >> 6] |= 1L << b;
+                }
+            }
+        }
+    }
+
+    private byte block(int k, int x, int y) { // Works out the state of cell (x, y) of level k, from the 2 by 2 block of level k - 1 below it
+        byte[] below = cells[k - 1];
+        int h = height[k - 1], first = x * 2, top = y * 2;
+        byte state = (byte) Main.EMPTY;
+        for (int bx = first; bx < Math.min(first + 2, width[k - 1]); bx++) {
+            for (int by = top; by < Math.min(top + 2, h); by++) {
+                byte other = below[bx * h + by];
+                if (PRIORITY[other] > PRIORITY[state]) state = other;
+            }
+        }
+        return state;
+    }
+
+    public int level(int w, int h) { // Returns the most detailed level that fits in w by h pixels, at a pixel or more for each cell
+        int k = 0;
+        while (k < levels - 1 && (width[k] > w || height[k] > h)) k ++;
+        return k;
+    }
+}
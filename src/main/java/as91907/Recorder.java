@@ -0,0 +1,140 @@
+/*
+ *  AS91907.Recorder
+ *  Last Updated: 17/10/2026
+ *  Purpose: An Observer that records the visualisation of every so many ticks to a numbered PNG file, one pixel per cell, so a run can be made into a video.
+ *  The simulation's thread only copies the cells into a buffer and queues it, and a pool of encoder threads turns them into PNGs in parallel. The buffers are reused, so recording a long run allocates nothing on the simulation's thread.
+ *  If every buffer is still waiting to be encoded, the tick is dropped instead of holding up the simulation, and counted.
+ */
+
+package as91907;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferByte;
+import java.awt.image.IndexColorModel;
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import javax.imageio.ImageIO;
+
+public class Recorder implements Observer {
+    public static final int BUFFERS = 2; // Buffers for each encoder, so each can have one waiting while it encodes another
+
+    private final File directory; // Where the PNGs are written
+    private final int every; // Number of ticks between recorded frames
+    private final Engine engine;
+    private final int width, height;
+    private final CellBits changed; // The cells that have changed since the last recorded frame
+    private final byte[] cells; // The rendered state of each cell at the last recorded frame, at index x * HEIGHT + y
+    private final IndexColorModel colours; // The colours of the states when recording started
+    private final ArrayBlockingQueue<Shot> free; // The buffers not being used
+    private final ArrayBlockingQueue<Shot> queue; // The buffers waiting to be encoded, in order
+    private final Thread[] encoders;
+    public long recorded = 0, dropped = 0; // Number of frames queued and dropped. Only used by the simulation's thread
+    public volatile IOException error; // The first error writing a PNG, if any
+
+    private static class Shot { // A buffer of cells waiting to be encoded
+        final byte[] cells;
+        long tick; // The tick the cells are from, which names the file, or -1 to tell an encoder to stop
+
+        Shot(int length) {
+            cells = new byte[length];
+        }
+    }
+
+    public Recorder(Simulation s, File directory, int every, int threads) throws IOException { // Starts the encoder threads, and records the first frame
+        if (!directory.isDirectory() && !directory.mkdirs()) throw new IOException("Could not create the directory");
+        this.directory = directory;
+        this.every = every;
+        engine = s.engine;
+        width = s.WIDTH;
+        height = s.HEIGHT;
+        changed = engine.track();
+        cells = new byte[width * height];
+        byte[] r = new byte[4], g = new byte[4], b = new byte[4];
+        for (int i = 0; i < 4; i++) {
+            r[i] = (byte) Main.COLOUR[i].getRed();
+            g[i] = (byte) Main.COLOUR[i].getGreen();
+            b[i] = (byte) Main.COLOUR[i].getBlue();
+        }
+        colours = new IndexColorModel(2, 4, r, g, b);
+        free = new ArrayBlockingQueue<>(threads * BUFFERS);
+        queue = new ArrayBlockingQueue<>(threads * BUFFERS + threads); // Room for every buffer, and a stop for each encoder
+        for (int i = 0; i < threads * BUFFERS; i++) free.add(new Shot(cells.length));
+        encoders = new Thread[threads];
+        for (int i = 0; i < threads; i++) {
+            encoders[i] = new Thread(this::encode, "Recorder " + s.ID + "-" + i);
+            encoders[i].setDaemon(true); // Doesn't keep the program open, done() waits for them
+            encoders[i].start();
+        }
+        ticked(s); // The starting state
+    }
+
+    @Override
+    public void ticked(Simulation s) { // Copies the cells into a free buffer and queues it, if this tick is recorded
+        if (s.elapsed % every != 0) return;
+        // Brings the cells up to date with every cell that changed since the last recorded frame
+        engine.collect();
+        byte[] rendered = engine.rendered;
+        for (int word = changed.next(0); word >= 0; word = changed.next(word + 1)) { // Only the words with cells that changed
+            long bits = changed.take(word);
+            for (; bits != 0; bits &= bits - 1) { // For each set bit, clearing the lowest one each time
+                int c = (word << 6) + Long.numberOfTrailingZeros(bits);
+                cells[c] = rendered[c];
+            }
+        }
+        Shot shot = free.poll(); // Never waits
+        if (shot == null) { // Every buffer is waiting to be encoded, so this tick is dropped
+            dropped ++;
+            return;
+        }
+        System.arraycopy(cells, 0, shot.cells, 0, cells.length);
+        shot.tick = s.elapsed;
+        queue.add(shot); // Always has room, as it can hold every buffer
+        recorded ++;
+    }
+
+    @Override
+    public void done(Simulation s) { // Waits for every queued frame to be written
+        for (Thread ignored : encoders) {
+            Shot stop = new Shot(0);
+            stop.tick = -1;
+            queue.add(stop);
+        }
+        for (Thread encoder : encoders) {
+            try {
+                encoder.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private void encode() { // Turns each queued buffer into a PNG. Runs on each encoder thread
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_BYTE_BINARY, colours); // Reused for every frame, 2 bits per pixel
+        byte[] pixels = ((DataBufferByte) image.getRaster().getDataBuffer()).getData();
+        int stride = (width + 3) / 4; // Bytes in each row, 4 pixels to a byte, the first in the highest bits
+        while (true) {
+            Shot shot;
+            try {
+                shot = queue.take();
+            } catch (InterruptedException e) {
+                return;
+            }
+            if (shot.tick < 0) return; // Told to stop
+            Arrays.fill(pixels, (byte) 0);
+            for (int x = 0; x < width; x++) {
+                int shift = 6 - ((x & 3) << 1), column = x * height;
+                for (int y = 0; y < height; y++) pixels[y * stride + (x >> 2)] |= (byte) (shot.cells[column + y] << shift);
+            }
+            long tick = shot.tick;
+            free.add(shot); // Given back before the slow part, so the simulation can fill it again
+            try {
+                if (!ImageIO.write(image, "png", new File(directory, String.format("frame%010d.png", tick)))) throw new IOException("No PNG writer");
+            } catch (IOException e) {
+                if (error == null) error = e;
+            }
+        }
+    }
+}
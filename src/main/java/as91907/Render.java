@@ -0,0 +1,86 @@
+/*
+ *  AS91907.Render
+ *  Last Updated: 17/10/2026
+ *  Purpose: A window that holds a custom Image, used to display live visualisations. The Image is drawn from a Frame on the render thread, and Swing only copies the finished Image to the screen.
+ *  Only Swing's thread touches the window. It tells the render thread the window's size and whether it is showing through volatile fields, and a new Image is handed to Swing's thread to be swapped in.
+ */
+
+package as91907;
+
+import java.awt.Graphics;
+import java.awt.Dimension;
+import java.awt.Container;
+import java.awt.event.ComponentAdapter;
+import java.awt.event.ComponentEvent;
+import javax.swing.JFrame;
+import javax.swing.SwingUtilities;
+
+public abstract class Render extends Container { // Displays a dialog with custom graphics using Image
+    public volatile int w, h; // Stores width and height. Written by Swing whenever the window is resized
+    public final Frame f; // The frame being drawn
+    public volatile Image image; // Stores the image being drawn. Replaced on the render thread
+    protected Image onScreen; // The image Swing copies to the screen. Only used on Swing's thread, which swaps it for image when told there is a new one
+    private volatile boolean visible; // Whether the window is showing. Written by Swing, so the render thread never asks the window
+    private final Runnable show = () -> { // Swaps in the latest image and repaints it. Created once, as it is run for every frame
+        onScreen = image;
+        repaint();
+    };
+    private final JFrame window;
+    public Render(Frame f, String title, int w, int h) { // Runs on Swing's thread
+        this.f = f;
+        this.w = w;
+        this.h = h;
+        if (needNewImage()) newImage(); // Generates a new image
+        onScreen = image;
+        window = new JFrame(title + f.ID); // Creates a parent JFrame
+        window.setContentPane(this); // Makes itself the content pane
+        setPreferredSize(new Dimension(w, h)); // Sets its preferred size to minimum still visible
+        addComponentListener(new ComponentAdapter() {
+            @Override
+            public void componentResized(ComponentEvent e) { // Passes the new size to the render thread
+                Render.this.w = getWidth();
+                Render.this.h = getHeight();
+            }
+        });
+        window.addComponentListener(new ComponentAdapter() {
+            @Override
+            public void componentShown(ComponentEvent e) {
+                visible = true;
+            }
+
+            @Override
+            public void componentHidden(ComponentEvent e) {
+                visible = false;
+            }
+        });
+        window.pack();
+    }
+
+    public void record() {} // Takes in the frame even when the render isn't showing, for renders that keep a history of the frames. Runs on the render thread, with the frame locked
+
+    public void refresh() { // Brings the image up to date with the frame, then asks Swing to show it. Runs on the render thread, with the frame locked
+        if (needNewImage()) newImage(); // Generates a new image, which draws the whole frame, at the size Swing last gave
+        else image.render(); // Otherwise draws what has changed
+        SwingUtilities.invokeLater(show); // Swaps in the image on Swing's thread if it is new, and repaints it
+    }
+
+    @Override
+    public void paint(Graphics g) { // Only copies the image to the screen, so never waits for the simulation or render thread
+        g.setColor(Main.COLOUR[Main.EMPTY]);
+        g.fillRect(0, 0, getWidth(), getHeight());
+        g.drawImage(onScreen, (getWidth() - onScreen.w) / 2, (getHeight() - onScreen.h) / 2, null); // Draws the image
+    }
+
+    public abstract boolean needNewImage(); // Returns whether the image needs to be recreated
+
+    public abstract void newImage(); // Where the image is initialised, allowing for the Image to be abstracted
+    public boolean showing() { // Returns whether the render's window is on screen, and so worth drawing. Can be run on any thread
+        return visible;
+    }
+    public void toggle() { // Toggles visibility of the render
+        window.setVisible(!window.isVisible());
+    }
+    public void dispose() { // Closes the render
+        window.dispose();
+    }
+}
@@ -0,0 +1,169 @@
+/*
+ *  AS91907.Replay
+ *  Last Updated: 17/10/2026
+ *  Purpose: Plays back a trace written by TraceWriter in the same visualisation, pie chart and epidemic curve as a live simulation, with a slider to seek to any tick. Frames are read from the trace on the render thread, as they are needed.
+ *  Usage: java as91907.Replay [trace file]
+ */
+
+package as91907;
+
+import java.awt.BorderLayout;
+import java.awt.Toolkit;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import javax.swing.JButton;
+import javax.swing.JFrame;
+import javax.swing.JLabel;
+import javax.swing.JMenuBar;
+import javax.swing.JMenuItem;
+import javax.swing.JOptionPane;
+import javax.swing.JSlider;
+import javax.swing.KeyStroke;
+import javax.swing.SwingConstants;
+import javax.swing.SwingUtilities;
+import javax.swing.WindowConstants;
+
+public class Replay {
+    // Labels for the different renders, the same as Viewer
+    private static final char VISUALISATION = 0;
+    private static final char PIE = 1;
+    private static final char CURVE = 2;
+
+    private final TraceReader reader; // The trace being played. Only read and closed on the render thread
+    private final Frame frame; // The frame being shown
+    private final JFrame main; // The replay's window
+    private final Render[] renders; // Stores the toggleable renders
+    private final JSlider slider; // Chooses the tick to show
+    private final JButton play; // Plays and pauses
+    private final JLabel tickCounter;
+    private final ScheduledFuture<?> drawing; // The repeating task drawing the frames
+    private volatile long target = 0; // The frame of the trace to show
+    private volatile boolean playing = false; // Whether to move on a frame every time one is drawn
+    private long shown = -1; // The frame of the trace in frame. Only used by the render thread
+
+    public static void main(String[] args) {
+        if (args.length != 1) Batch.fail("Usage: java as91907.Replay [trace file]");
+        SwingUtilities.invokeLater(() -> {
+            try {
+                new Replay(new File(args[0]));
+            } catch (IOException e) {
+                Batch.fail("Could not read " + args[0] + ": " + e.getMessage());
+            }
+        });
+    }
+
+    public Replay(File file) throws IOException {
+        reader = new TraceReader(file);
+        int id;
+        synchronized (Main.class) { // Takes an ID like a Simulation, so its windows can be told apart
+            id = Main.sims;
+            Main.sims ++;
+        }
+        frame = new Frame(id, reader.WIDTH, reader.HEIGHT, reader.total);
+        reader.read(0, frame);
+        renders = new Render[] {
+                Viewer.initialiseVisualisation(frame),
+                Viewer.initialisePie(frame),
+                new CurveRender(frame)
+        };
+
+        // Creates the main GUI for the replay
+        main = new JFrame("Replay " + id + " of " + file.getName() + " (Seed " + reader.SEED + ")");
+        main.setDefaultCloseOperation(WindowConstants.DISPOSE_ON_CLOSE);
+        // Creates a JMenuBar, with menu items to toggle visibility of the renders
+        JMenuBar bar = new JMenuBar();
+        main.setJMenuBar(bar);
+        for (char i : new char[]{VISUALISATION, PIE, CURVE}) { // Using foreach to make i semi-final, for action listener
+            JMenuItem renderButton = new JMenuItem(switch (i) {
+                case VISUALISATION -> "Visualisation";
+                case PIE -> "Pie";
+                case CURVE -> "Curve";
+                default -> throw new IllegalStateException();
+            });
+            renderButton.setAccelerator(KeyStroke.getKeyStroke((char) ('1' + i), Toolkit.getDefaultToolkit().getMenuShortcutKeyMaskEx()));
+            renderButton.addActionListener(l -> renders[i].toggle());
+            bar.add(renderButton);
+        }
+
+        // Creates a slider to seek through the trace, and a button to play it
+        slider = new JSlider(0, (int) Math.min(reader.frames - 1, Integer.MAX_VALUE), 0);
+        slider.addChangeListener(l -> {
+            if (!playing || slider.getValueIsAdjusting()) target = slider.getValue(); // While playing, the slider is moved to follow the frames, which mustn't move them back
+        });
+        play = new JButton("Play");
+        play.addActionListener(l -> {
+            if (!playing && target == reader.frames - 1) target = 0; // Plays from the start again if at the end
+            playing = !playing;
+            play.setText(playing ? "Pause" : "Play");
+        });
+        tickCounter = new JLabel();
+        tickCounter.setHorizontalAlignment(SwingConstants.CENTER);
+        main.add(play, BorderLayout.WEST);
+        main.add(slider, BorderLayout.CENTER);
+        main.add(tickCounter, BorderLayout.SOUTH);
+
+        main.addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosed(WindowEvent e) { // Stops drawing and closes everything
+                drawing.cancel(false); // Doesn't wait for a frame already being drawn
+                for (Render r : renders) r.dispose();
+                Viewer.RENDERER.execute(() -> { // Closed on the render thread, after any frame being read from it
+                    try {
+                        reader.close();
+                    } catch (IOException ignored) {} // Nothing more will be read
+                });
+            }
+        });
+        main.pack();
+        main.setVisible(true);
+        renders[VISUALISATION].toggle(); // Shows the visualisation straight away, as that's what a replay is for
+
+        drawing = Viewer.RENDERER.scheduleAtFixedRate(this::draw, 0, Viewer.FRAME_NANOS, TimeUnit.NANOSECONDS); // Starts drawing frames
+    }
+
+    private void draw() { // Draws the next frame, stopping the replay if it fails. Runs on the render thread
+        try {
+            show();
+        } catch (RuntimeException e) { // Such as a damaged trace. Shown, then thrown again to stop drawing, which would otherwise stop without a word and freeze the replay
+            SwingUtilities.invokeLater(() -> {
+                JOptionPane.showMessageDialog(main, "Could not play the trace: " + e);
+                main.dispose();
+            });
+            throw e;
+        }
+    }
+
+    private void show() { // Reads the target frame if it has changed, then draws it into the visible renders
+        if (playing) { // Moves on a frame, stopping at the end
+            if (target + 1 < reader.frames) {
+                target ++;
+                int value = (int) Math.min(target, Integer.MAX_VALUE);
+                SwingUtilities.invokeLater(() -> slider.setValue(value)); // Keeps the slider up to date
+            }
+            else {
+                playing = false;
+                SwingUtilities.invokeLater(() -> play.setText("Play"));
+            }
+        }
+        frame.lock.lock();
+        try {
+            long wanted = target;
+            if (wanted != shown) {
+                reader.read(wanted, frame); // Marks the cells that changed, so only they are redrawn
+                shown = wanted;
+            }
+            for (Render r : renders) {
+                r.record();
+                if (r.showing()) r.refresh(); // Redraws each visible render
+            }
+            String ticks = "Tick " + frame.tick + ", " + frame.ticks + " ticks left.";
+            SwingUtilities.invokeLater(() -> tickCounter.setText(ticks));
+        } finally {
+            frame.lock.unlock();
+        }
+    }
+}
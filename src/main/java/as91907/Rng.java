@@ -0,0 +1,41 @@
+/*
+ *  AS91907.Rng
+ *  Last Updated: 17/10/2026
+ *  Purpose: A fast random number generator (SplitMix64, the same algorithm as java.util.SplittableRandom). Each one is used by a single thread, so there is no shared seed to fight over, and the same seed always gives the same numbers.
+ */
+
+package as91907;
+
+public final class Rng {
+    private static final long GAMMA = 0x9e3779b97f4a7c15L; // Added to the seed each draw, the same as SplittableRandom's default
+
+    public long seed; // The current state. Public so it can be saved and restored
+
+    public Rng(long seed) {
+        this.seed = seed;
+    }
+
+    public long nextLong() { // Returns the next 64 random bits
+        long z = (seed += GAMMA);
+        // Mixes the bits of the seed
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+
+    public double nextDouble() { // Returns a random double from 0 (inclusive) to 1 (exclusive), like Math.random()
+        return (nextLong() >>> 11) * 0x1.0p-53;
+    }
+
+    public int nextInt(int bound) { // Returns a random int from 0 (inclusive) to bound (exclusive). Scales the top 32 bits rather than rejecting, which is biased by at most bound / 2^32
+        return (int) (((nextLong() >>> 32) * bound) >>> 32);
+    }
+
+    public void jump(long draws) { // Skips ahead as many draws as given, at once, as each draw only adds GAMMA to the seed. Lets several threads share out one sequence of numbers
+        seed += draws * GAMMA;
+    }
+
+    public Rng split() { // Returns a new Rng whose numbers are independent of this one's, advancing this one
+        return new Rng(nextLong());
+    }
+}
@@ -0,0 +1,26 @@
+/*
+ *  AS91907.Scheduler
+ *  Last Updated: 17/10/2026
+ *  Purpose: The threads that every launched Simulation runs on, one for each core, shared by all of them.
+ *  A throttled simulation is only given a thread when its next tick is due, using the pool's timers, which have nanosecond resolution, so slow simulations cost almost nothing while they wait.
+ *  An unthrottled simulation keeps its thread for a slice of time, then goes to the back of the queue, so every simulation gets its turn and each one still gets a whole core when there are enough.
+ */
+
+package as91907;
+
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class Scheduler {
+    public static final long SLICE_NANOS = 10_000_000; // Longest an unthrottled simulation runs before letting the others have the thread
+
+    private static final AtomicInteger threads = new AtomicInteger(); // Number of threads created, for their names
+    static final ScheduledThreadPoolExecutor POOL = new ScheduledThreadPoolExecutor(Runtime.getRuntime().availableProcessors(), r -> {
+        Thread thread = new Thread(r, "Simulation " + threads.getAndIncrement());
+        thread.setDaemon(true); // Doesn't keep the program open, the launcher closes it
+        return thread;
+    });
+    static {
+        POOL.setRemoveOnCancelPolicy(true); // Drops the ticks of stopped simulations straight away
+    }
+}
@@ -0,0 +1,166 @@
+/*
+ *  AS91907.Simulation
+ *  Last Updated: 17/10/2026
+ *  Purpose: Runs a simulation with the given parameters, either on the calling thread or on the shared Scheduler, notifying its Observers of each tick as it goes. Only keeps the latest counts, so it can run endlessly, and a HistoryWriter can stream every tick to a CSV file. Contains no GUI, so it can run headless.
+ */
+
+package as91907;
+
+import java.net.InetAddress;
+import java.util.ArrayList;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Function;
+
+public class Simulation {
+    // Simulation parameters
+    public final int ID; // Unique within this instance of the program
+    public final int WIDTH, HEIGHT; // Size of the simulation
+    public final double INFECTION_CHANCE; // Chance for each infected person to infect a normal person
+    public final int INFECTION_COOLDOWN, IMMUNITY_COOLDOWN; // Highest state (internal) for each respective stage
+    public final int TICK_SPEED; // Minimum number of milliseconds per tick (default 0)
+    public final long SEED; // Seed for all the random numbers, so that the same seed gives the same history
+    public int ticks; // Number of ticks remaining
+    public long elapsed; // Number of ticks run
+
+    public final char ENGINE; // The kind of engine
+    public final Engine engine; // Stores the agents and runs each phase of the ticks
+
+    public int infections; // Number of infections during simulation
+
+    public final int[] count = new int[3]; // The total counts of each population at the latest tick, reused every tick
+    public volatile boolean running = true; // Whether to continue running as usual. Can be cleared by an Observer to stop early.
+    private final ArrayList<Observer> observers = new ArrayList<>(); // Everything watching this simulation
+    public Metrics metrics; // Times the phases of some of the ticks. Null unless something wants to know, so it costs nothing
+    private final long TICK_NANOS; // TICK_SPEED in nanoseconds
+    private ScheduledFuture<?> next; // The next tick of a throttled simulation on the Scheduler, while it is waiting for it
+
+    public Simulation(int width, int height, int infectionDuration, int immunityDuration, double infectionChance, int[] startingCount, int ticks, int tickSpeed, long seed, char engine) {
+        this(width, height, infectionDuration, immunityDuration, infectionChance, startingCount, ticks, tickSpeed, seed, engine, null, s -> Engine.create(engine, s, startingCount));
+    }
+
+    public Simulation(Checkpoint c) { // Restores a simulation from a checkpoint, carrying on from the tick it was saved at
+        this(c.width, c.height, c.infectionDuration, c.immunityDuration, c.infectionChance, c.count, c.ticks, c.tickSpeed, c.seed, c.engine, c, s -> Engine.restore(c.engine, s, c));
+    }
+
+    public Simulation(int width, int height, int infectionDuration, int immunityDuration, double infectionChance, int[] startingCount, int ticks, int tickSpeed, long seed, int workers, int port, InetAddress bind) { // Splits the grid between worker processes, waiting for them on port at bind, or starting them on this machine if port is 0
+        this(width, height, infectionDuration, immunityDuration, infectionChance, startingCount, ticks, tickSpeed, seed, Engine.CLUSTER, null, s -> new ClusterEngine(s, startingCount, workers, port, bind));
+    }
+
+    Simulation(int width, int height, int infectionDuration, int immunityDuration, double infectionChance, int[] startingCount, int ticks, int tickSpeed, long seed, char engine, Checkpoint c, Function<Simulation, Engine> engines) { // Creates the engine with engines, once the parameters are set
+        // Initialisation of parameters
+        synchronized (Main.class) { // Simulations can be created on several threads at once by Ensemble
+            ID = Main.sims;
+            Main.sims ++;
+        }
+        WIDTH = width;
+        HEIGHT = height;
+        INFECTION_COOLDOWN = infectionDuration;
+        IMMUNITY_COOLDOWN = INFECTION_COOLDOWN + immunityDuration;
+        INFECTION_CHANCE = infectionChance;
+        this.ticks = ticks;
+        TICK_SPEED = tickSpeed;
+        TICK_NANOS = TimeUnit.MILLISECONDS.toNanos(tickSpeed);
+        SEED = seed;
+        infections = startingCount[Main.INFECTED];
+        ENGINE = engine;
+        if (c != null) { // Restores the progress first, as an engine can depend on the tick
+            elapsed = c.elapsed;
+            infections = c.infections;
+        }
+        this.engine = engines.apply(this); // Initialisation of the agents
+        System.arraycopy(startingCount, 0, count, 0, 3); // The counts before the first tick
+    }
+
+    public void addObserver(Observer o) { // Adds an Observer, which must happen before the simulation starts
+        observers.add(o);
+    }
+
+    public void run() { // Runs the whole simulation on this thread, sleeping between throttled ticks
+        try {
+            while (running && ticks != 0) { // While we are still running and there are still more ticks left
+                long due = System.nanoTime() + TICK_NANOS; // The earliest the next tick can start
+                if (!step()) break;
+                for (long wait; (wait = due - System.nanoTime()) > 0; ) LockSupport.parkNanos(wait); // Sleeps while it hasn't been enough time to start the next tick
+            }
+        } finally { // Even if a tick fails, so the Observers and engine are still closed
+            finish();
+        }
+    }
+
+    public void start() { // Runs the simulation on the shared Scheduler, returning straight away
+        Scheduler.POOL.execute(this::resume);
+    }
+
+    public void stop() { // Stops the simulation early. If it is waiting for its next tick, it finishes straight away instead
+        synchronized (this) {
+            running = false;
+            if (next != null && next.cancel(false)) Scheduler.POOL.execute(this::resume); // Only if the tick hadn't started, otherwise it will see running is cleared
+        }
+    }
+
+    private void resume() { // Runs ticks on one of the Scheduler's threads, until it has to wait for the next tick or has had its slice of time
+        long slice = System.nanoTime() + Scheduler.SLICE_NANOS;
+        while (running && ticks != 0) {
+            long due = System.nanoTime() + TICK_NANOS;
+            try {
+                if (!step()) break;
+            } catch (RuntimeException | Error e) { // The Scheduler would drop it without a word, and never finish the simulation
+                e.printStackTrace();
+                break;
+            }
+            long now = System.nanoTime();
+            if (due > now) synchronized (this) { // Gives the thread back until the next tick is due
+                if (running) {
+                    next = Scheduler.POOL.schedule(this::resume, due - now, TimeUnit.NANOSECONDS);
+                    return;
+                }
+            }
+            if (now > slice && running) { // Lets the other simulations have a turn
+                Scheduler.POOL.execute(this::resume);
+                return;
+            }
+        }
+        finish();
+    }
+
+    private boolean step() { // Runs a tick and lets the Observers know about it. Returns false if none are infected, which ends the simulation
+        tick(); // Runs the tick
+        boolean timed = metrics != null && metrics.timing(elapsed - 1); // The same ticks as tick() timed
+        long time = timed ? System.nanoTime() : 0;
+        for (int i = 0; i < observers.size(); i++) observers.get(i).ticked(this); // Lets the Observers know about the new tick. Indexed, so no Iterator is created each tick
+        if (timed) metrics.phase(Metrics.OBSERVERS, time);
+        if (count[1] == 0) return false; // If none are infected, end the simulation
+        ticks --;
+        return true;
+    }
+
+    public void abandon() { // Ends a simulation that will never be started, such as when its GUI couldn't be created, so its Observers and engine let go of their threads, files and memory
+        ticks = 0; // Nothing to carry on from, so a temporary checkpoint is deleted
+        finish();
+    }
+
+    private void finish() {
+        running = false; // The simulation is no longer running
+        for (Observer o : observers) o.done(this); // Finishes the simulation
+        engine.close(); // Last, as the Observers can still read the engine
+    }
+
+    public void tick() { // Runs a single tick, leaving the new total counts of each state in count
+        boolean timed = metrics != null && metrics.timing(elapsed); // Only some ticks are timed
+        long time = timed ? System.nanoTime() : 0; // When the current phase started
+        engine.spread(); // Spreads infections
+        if (timed) time = metrics.phase(Metrics.SPREAD, time);
+        engine.move(); // Changes positions
+        if (timed) time = metrics.phase(Metrics.MOVE, time);
+        engine.finishMovement(); // Regroups everyone by their new positions
+        if (timed) time = metrics.phase(Metrics.FINISH_MOVEMENT, time);
+
+        // Counts the total quantity of each State
+        count[0] = count[1] = count[2] = 0; // Resets the count
+        engine.update(count); // Updates everyone's state, counting them
+        if (timed) metrics.phase(Metrics.UPDATE, time);
+        elapsed ++;
+    }
+}
@@ -0,0 +1,231 @@
+/*
+ *  AS91907.TileEngine
+ *  Last Updated: 17/10/2026
+ *  Purpose: The Engine of a Worker, storing only the agents in its tile, the columns FIRST to LAST - 1 of the grid, in primitive arrays the same as ArrayEngine. Follows the same rules as every other Engine.
+ *  Infections only spread within a cell, so a tile never needs to know about its neighbours' cells. After moving, the agents that walked off the edge of the tile are sent to the neighbouring tile, along with whether they were infected this tick, and the agents that walked in are taken in.
+ *  The number of agents changes as they come and go, so the arrays grow when they need to.
+ */
+
+package as91907;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+
+public class TileEngine extends Engine {
+    public final int FIRST, LAST; // The columns of the tile, from FIRST (inclusive) to LAST (exclusive)
+    private final int cells; // Number of cells in the tile
+    private final boolean even; // Whether this is an even tile, which sends before receiving, so that neighbours never wait on each other
+    private final DataInputStream fromLeft, fromRight; // The neighbouring tiles, or null at the edges of the grid
+    private final DataOutputStream toLeft, toRight;
+    private final Rng random; // Random numbers for the phases
+
+    // Agent i is stored at index i of each of these, for the first agents of them
+    public int agents;
+    private int[] x, y; // Positions
+    private int[] state; // Internal states, the same as Person.state
+    private boolean[] infected; // Whether each agent will become infected this round, the same as Person.infected
+    private int[] leaving = new int[16]; // The agents that left the tile this tick, in order
+
+    // The agents in cell c of the tile are order[start[c]] to order[start[c + 1] - 1], where c = (x - FIRST) * HEIGHT + y
+    private int[] order;
+    private final int[] start;
+
+    public TileEngine(Simulation s, int first, int last, int index, int[] startingCount, DataInputStream fromLeft, DataOutputStream toLeft, DataInputStream fromRight, DataOutputStream toRight) {
+        super(s);
+        if ((long) (last - first) * s.HEIGHT > DENSE_CELLS) throw new IllegalArgumentException("A tile can't have more than " + DENSE_CELLS + " cells, so more workers are needed");
+        FIRST = first;
+        LAST = last;
+        cells = (last - first) * s.HEIGHT;
+        even = index % 2 == 0;
+        this.fromLeft = fromLeft;
+        this.toLeft = toLeft;
+        this.fromRight = fromRight;
+        this.toRight = toRight;
+        random = new Rng(s.SEED); // The tile's own seed, from the coordinator
+        agents = startingCount[Main.NORMAL] + startingCount[Main.INFECTED] + startingCount[Main.IMMUNE];
+        int capacity = Math.max(agents + (agents >> 3), 16); // Some room for more agents walking in than out
+        x = new int[capacity];
+        y = new int[capacity];
+        state = new int[capacity];
+        infected = new boolean[capacity];
+        order = new int[capacity];
+        start = new int[cells + 1];
+
+        // Creates the agents in the order NORMAL, INFECTED, IMMUNE, at random positions in the tile
+        for (int j = 0, i = 0; j < 3; j++) {
+            int initial = switch (j) { // The internal state they start with
+                case Main.NORMAL -> 0;
+                case Main.INFECTED -> 1;
+                default -> s.INFECTION_COOLDOWN + 1;
+            };
+            for (int k = 0; k < startingCount[j]; k++, i++) {
+                x[i] = first + random.nextInt(last - first);
+                y[i] = random.nextInt(s.HEIGHT);
+                state[i] = initial;
+            }
+        }
+        sort(); // Groups everything by cell for the simulation to start
+    }
+
+    @Override
+    public void spread() { // Counts the infected agents in each cell, then each normal agent in the cell has a single chance to be set to become infected by any of them, the same as ArrayEngine
+        final int infectionCooldown = s.INFECTION_COOLDOWN;
+        for (int c = 0; c < cells; c++) {
+            int first = start[c], last = start[c + 1];
+            if (last - first < 2) continue; // Nobody to infect
+            int sick = 0;
+            for (int j = first; j < last; j++) {
+                int st = state[order[j]];
+                if (st != 0 && st <= infectionCooldown) sick ++;
+            }
+            if (sick == 0) continue; // Nobody to spread
+            double chance = chance(sick);
+            for (int j = first; j < last; j++) {
+                int other = order[j];
+                if (state[other] == 0 && random.nextDouble() < chance) infected[other] = true;
+            }
+        }
+    }
+
+    @Override
+    public void move() { // Moves every agent in a random direction, the same as ArrayEngine. Agents can walk off the tile, but never off the grid
+        final int width = s.WIDTH, height = s.HEIGHT;
+        for (int i = 0; i < agents; i++) {
+            byte[] moves = MOVES[edges(x[i], y[i], width, height)]; // Looks up the moves that are possible from here
+            switch (moves[random.nextInt(moves.length)]) {
+                                     // Stay still
+                case 1 -> y[i] --; // Move up
+                case 2 -> x[i] --; // Move left
+                case 3 -> y[i] ++; // Move down
+                case 4 -> x[i] ++; // Move right
+            }
+        }
+    }
+
+    @Override
+    public void finishMovement() { // Swaps the agents that walked off the tile with its neighbours, then regroups the agents by cell
+        try {
+            exchange();
+        } catch (IOException e) { // A neighbour has gone, so the simulation can't carry on
+            throw new UncheckedIOException("Lost a neighbouring worker", e);
+        }
+        sort();
+    }
+
+    private void exchange() throws IOException {
+        int gone = 0; // Finds the agents that left, in order
+        for (int i = 0; i < agents; i++) if (x[i] < FIRST || x[i] >= LAST) {
+            if (gone == leaving.length) leaving = Arrays.copyOf(leaving, gone * 2);
+            leaving[gone ++] = i;
+        }
+        // Each tile sends to the right, then to the left. Even tiles send before receiving and odd tiles receive before sending, so one of each pair is always reading while the other writes
+        // The agents received are added to the end, so they never mix with the ones leaving
+        if (even) {
+            send(toRight, gone, LAST);
+            receive(fromLeft, FIRST);
+            send(toLeft, gone, FIRST - 1);
+            receive(fromRight, LAST - 1);
+        } else {
+            receive(fromLeft, FIRST);
+            send(toRight, gone, LAST);
+            receive(fromRight, LAST - 1);
+            send(toLeft, gone, FIRST - 1);
+        }
+        // Takes out the agents that left, from the last, filling each gap with the last agent. The ones after it that left have already been taken out, so the last agent is always staying, or just arrived
+        for (int j = gone - 1; j >= 0; j--) {
+            int i = leaving[j], last = -- agents;
+            x[i] = x[last];
+            y[i] = y[last];
+            state[i] = state[last];
+            infected[i] = infected[last];
+        }
+    }
+
+    private void send(DataOutputStream out, int gone, int column) throws IOException { // Sends the agents that left into a column to a neighbour
+        if (out == null) return; // Nobody can walk off the edge of the grid
+        int sent = 0;
+        for (int j = 0; j < gone; j++) if (x[leaving[j]] == column) sent ++;
+        out.writeInt(sent);
+        for (int j = 0; j < gone; j++) {
+            int i = leaving[j];
+            if (x[i] != column) continue;
+            out.writeInt(y[i]);
+            out.writeInt(state[i]);
+            out.writeBoolean(infected[i]);
+        }
+        out.flush();
+    }
+
+    private void receive(DataInputStream in, int column) throws IOException { // Adds the agents that walked in from a neighbour, into a column of this tile
+        if (in == null) return;
+        int arrived = in.readInt();
+        if (agents + arrived > x.length) grow(agents + arrived);
+        for (int k = 0; k < arrived; k++, agents++) {
+            x[agents] = column;
+            y[agents] = in.readInt();
+            state[agents] = in.readInt();
+            infected[agents] = in.readBoolean();
+        }
+    }
+
+    private void grow(int needed) { // Makes room for at least the given number of agents
+        int capacity = Math.max(needed, x.length + (x.length >> 1));
+        x = Arrays.copyOf(x, capacity);
+        y = Arrays.copyOf(y, capacity);
+        state = Arrays.copyOf(state, capacity);
+        infected = Arrays.copyOf(infected, capacity);
+        order = new int[capacity]; // Refilled by every sort
+    }
+
+    private void sort() { // Counting sort of the agents by cell, the same as ArrayEngine
+        final int height = s.HEIGHT;
+        Arrays.fill(start, 0);
+        for (int i = 0; i < agents; i++) start[(x[i] - FIRST) * height + y[i]] ++; // Counts the agents in each cell
+        for (int c = 1; c < cells; c++) start[c] += start[c - 1]; // Turns the counts into the end of each cell's range
+        start[cells] = agents;
+        for (int i = agents - 1; i >= 0; i--) order[-- start[(x[i] - FIRST) * height + y[i]]] = i; // Places each agent, moving each cell's end back to its start
+    }
+
+    @Override
+    public void update(int[] count) { // Updates the states of the agents, the same as ArrayEngine, adding them to count
+        final int infectionCooldown = s.INFECTION_COOLDOWN, immunityCooldown = s.IMMUNITY_COOLDOWN;
+        int normal = 0, sick = 0, immune = 0;
+        for (int i = 0; i < agents; i++) {
+            int st = state[i];
+            if (infected[i]) { // If we have been infected
+                infected[i] = false; // Reset the flag
+                st = 1; // Start of infected
+                s.infections ++;
+            } else if (st > 0) { // Otherwise, if we are not NORMAL
+                st ++;
+                if (st > immunityCooldown) st = 0; // If we have reached the end of our immunity, reset to NORMAL
+            }
+            state[i] = st;
+            // Tallies the new state
+            if (st == 0) normal ++;
+            else if (st <= infectionCooldown) sick ++;
+            else immune ++;
+        }
+        count[0] += normal;
+        count[1] += sick;
+        count[2] += immune;
+    }
+
+    @Override
+    public void save(Checkpoint c) {
+        throw new UnsupportedOperationException("A tile can't be checkpointed on its own");
+    }
+
+    @Override
+    public char renderedState(int x, int y) {
+        throw new UnsupportedOperationException("A tile can't be watched on its own");
+    }
+
+    @Override
+    public CellBits track() {
+        throw new IllegalArgumentException("A tile can't be watched on its own");
+    }
+}
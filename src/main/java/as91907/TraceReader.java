@@ -0,0 +1,144 @@
+/*
+ *  AS91907.TraceReader
+ *  Last Updated: 17/10/2026
+ *  Purpose: Reads a trace written by TraceWriter through a memory mapped window, filling a Frame with any tick. Finds the tick's key frame through the index, then applies the deltas after it, so seeking never reads more than one key frame's worth of frames.
+ *  If the trace wasn't closed properly, for example because the program crashed, the index is rebuilt by scanning the frames that were finished.
+ */
+
+package as91907;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+public class TraceReader {
+    private static final long WINDOW = 64L << 20; // Size of the mapped window in bytes, unless a single frame needs more
+
+    public final int WIDTH, HEIGHT; // Size of the simulation
+    public final long SEED; // Seed of the simulation
+    public final long FIRST; // The first tick recorded
+    public final long frames; // Number of frames, one per tick
+    public final int total; // Total population
+
+    private final FileChannel channel; // The file being read
+    private final long size; // Size of the file in bytes
+    private final int interval; // Number of ticks between scheduled key frames
+    private final long[] index; // The position of each scheduled key frame
+    private final byte[] packed; // The packed cells of the current frame
+    private final int[] count = new int[3]; // The count of each state of the current frame
+    private long current = -1; // The frame in packed, -1 if none
+    private long next; // The position of the frame after the current one
+    private MappedByteBuffer window; // The mapped part of the file being read
+    private long windowStart; // The position of the window in the file
+
+    public TraceReader(File file) throws IOException { // Opens a trace, reading its header and index
+        channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+        size = channel.size();
+        if (size < TraceWriter.HEADER) throw new IOException(file + " is not a trace");
+        map(0, TraceWriter.HEADER);
+        if (window.getLong() != TraceWriter.MAGIC) throw new IOException(file + " is not a trace");
+        if (window.getInt() != TraceWriter.VERSION) throw new IOException(file + " is from a different version");
+        WIDTH = window.getInt();
+        HEIGHT = window.getInt();
+        interval = window.getInt();
+        SEED = window.getLong();
+        FIRST = window.getLong();
+        long closedFrames = window.getLong();
+        long indexPosition = window.getLong();
+        packed = new byte[(int) (((long) WIDTH * HEIGHT + 3) / 4)];
+
+        if (indexPosition != 0) { // Reads the index
+            frames = closedFrames;
+            index = new long[(int) ((frames + interval - 1) / interval)];
+            map(indexPosition, 8L * index.length);
+            for (int k = 0; k < index.length; k++) index[k] = window.getLong();
+        } else { // Rebuilds the index from every complete frame
+            long[] found = new long[16];
+            long position = TraceWriter.HEADER, complete = 0;
+            while (position + TraceWriter.FRAME_HEADER <= size) {
+                map(position, TraceWriter.FRAME_HEADER);
+                byte type = window.get();
+                int length = window.getInt();
+                if (type == TraceWriter.KEY ? length != packed.length : type != TraceWriter.DELTA || length < 0) break; // The frame was never written
+                if (position + TraceWriter.FRAME_HEADER + length > size) break; // The frame wasn't finished
+                if (complete % interval == 0) {
+                    if (type != TraceWriter.KEY) break; // Every scheduled key frame must be one, so the rest isn't part of the trace
+                    int k = (int) (complete / interval);
+                    if (k == found.length) found = Arrays.copyOf(found, found.length * 2);
+                    found[k] = position;
+                }
+                position += TraceWriter.FRAME_HEADER + length;
+                complete ++;
+            }
+            frames = complete;
+            index = Arrays.copyOf(found, (int) ((frames + interval - 1) / interval));
+        }
+        if (frames == 0) throw new IOException(file + " has no frames");
+        seek(0);
+        total = count[0] + count[1] + count[2];
+    }
+
+    public void read(long frame, Frame f) { // Fills a frame with the cells and counts of a frame of the trace. The pyramid only takes in the cells that changed
+        seek(frame);
+        for (int c = 0, cells = f.WIDTH * f.HEIGHT; c < cells; c++) f.pyramid.set(c, (byte) ((packed[c >> 2] >> ((c & 3) << 1)) & 3));
+        System.arraycopy(count, 0, f.count, 0, 3);
+        System.arraycopy(count, 0, f.low, 0, 3); // Each frame of a trace is a single tick
+        System.arraycopy(count, 0, f.high, 0, 3);
+        f.tick = FIRST + frame;
+        f.ticks = (int) Math.min(frames - 1 - frame, Integer.MAX_VALUE); // The frames left to play
+    }
+
+    private void seek(long frame) { // Decodes a frame into packed
+        if (frame <= current || frame - current > frame % interval) { // Unless the frame is just ahead, in the same key frame's run, starts again from its key frame
+            current = frame - frame % interval - 1;
+            next = index[(int) (frame / interval)];
+        }
+        while (current < frame) { // Applies each frame up to the one wanted
+            map(next, TraceWriter.FRAME_HEADER);
+            byte type = window.get();
+            int length = window.getInt();
+            for (int i = 0; i < 3; i++) count[i] = window.getInt();
+            map(next + TraceWriter.FRAME_HEADER, length);
+            if (type == TraceWriter.KEY) window.get(packed);
+            else { // Applies the runs of a delta
+                int end = window.position() + length;
+                for (int b = 0; window.position() < end; ) {
+                    b += getVarint();
+                    for (int n = getVarint(); n > 0; n--) packed[b ++] ^= window.get();
+                }
+            }
+            next += TraceWriter.FRAME_HEADER + length;
+            current ++;
+        }
+    }
+
+    private int getVarint() { // Reads 7 bits at a time, until a byte without the high bit set
+        int value = 0;
+        for (int shift = 0; ; shift += 7) {
+            byte b = window.get();
+            value |= (b & 0x7F) << shift;
+            if (b >= 0) return value;
+        }
+    }
+
+    private void map(long start, long bytes) { // Makes sure the window covers the given part of the file, moving it if not
+        if (window == null || start < windowStart || start + bytes > windowStart + window.capacity()) {
+            try {
+                windowStart = start;
+                window = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(Math.max(bytes, WINDOW), size - start));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        window.position((int) (start - windowStart));
+    }
+
+    public void close() throws IOException {
+        window = null;
+        channel.close();
+    }
+}
@@ -0,0 +1,184 @@
+/*
+ *  AS91907.TraceWriter
+ *  Last Updated: 17/10/2026
+ *  Purpose: An Observer that records the rendered state of every cell at every tick to a trace file, through a memory mapped window, so that the spread can be replayed or analysed afterwards. Read back by TraceReader.
+ *  Format: A header, then one frame per tick. Cells are packed 2 bits each, 4 to a byte, in the same order as the engine (x * HEIGHT + y), with the state labels as their values.
+ *          A key frame holds every packed cell. A delta frame holds the packed cells XORed with the previous frame, run length encoded as pairs of (number of zero bytes to skip, number of bytes that follow), each as a varint, followed by the bytes. Trailing zeros are left out.
+ *          Every interval ticks (KEYFRAMES by default) is a key frame, and a delta that would be bigger than a key frame is written as a key frame instead.
+ *          Header (64 bytes): "AS91907T", version, width, height, key frame interval (ints), seed, first tick, number of frames, position of the index (longs). The last two are 0 until the trace is closed.
+ *          Frame: type (byte), length of the cells (int), count of each state (3 ints), then the cells.
+ *          Index (at the end): the position of each scheduled key frame (longs), so any tick can be found by looking up its key frame.
+ */
+
+package as91907;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+public class TraceWriter implements Observer {
+    public static final long MAGIC = 0x4153393139303754L; // "AS91907T"
+    public static final int VERSION = 1;
+    public static final int HEADER = 64; // Size of the header in bytes
+    public static final int FRAME_HEADER = 1 + 4 + 3 * 4; // Size of each frame's header in bytes
+    public static final int KEYFRAMES = 256; // Default number of ticks between scheduled key frames
+    // Labels for the types of frame. 0 isn't used, so space the writer never reached can't be mistaken for a frame
+    public static final byte KEY = 1;
+    public static final byte DELTA = 2;
+
+    private static final long WINDOW = 64L << 20; // Size of the mapped window in bytes, unless a single frame needs more
+
+    private final FileChannel channel; // The file being written
+    private final int interval; // Number of ticks between scheduled key frames
+    private final long first; // The first tick recorded
+    private final byte[] packed; // The packed cells of the latest frame
+    private final byte[] literal; // The bytes of the run being encoded
+    private final byte[] block = new byte[16]; // The XORed bytes of the 64 cells being encoded
+    private final CellBits changed; // The cells that have changed since the last frame
+    private final Engine engine;
+    private long[] index = new long[16]; // The position of each scheduled key frame
+    private long frames = 0; // Number of frames written
+    private MappedByteBuffer window; // The mapped part of the file being written
+    private long windowStart; // The position of the window in the file
+    private long position = HEADER; // The position of the next frame in the file
+    private int zeros, literalLength; // The zero bytes waiting to be skipped, and the bytes waiting to be written, of the run being encoded
+    public volatile IOException error; // The first error writing the file, if any
+
+    public TraceWriter(Simulation s, File file, int interval) throws IOException { // Opens the file and writes the header and the first frame
+        channel = FileChannel.open(file.toPath(), StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING);
+        this.interval = interval;
+        first = s.elapsed;
+        engine = s.engine;
+        long cells = (long) s.WIDTH * s.HEIGHT;
+        if ((cells + 3) / 4 > Integer.MAX_VALUE - FRAME_HEADER) throw new IOException("Too many cells to trace");
+        packed = new byte[(int) ((cells + 3) / 4)];
+        literal = new byte[packed.length];
+        changed = engine.track();
+
+        map(0, HEADER);
+        window.putLong(MAGIC).putInt(VERSION).putInt(s.WIDTH).putInt(s.HEIGHT).putInt(interval).putLong(s.SEED).putLong(first).putLong(0).putLong(0);
+        ticked(s); // The first frame, which is always a key frame
+    }
+
+    @Override
+    public void ticked(Simulation s) { // Writes a frame for the tick
+        engine.collect();
+        map(position, FRAME_HEADER + 2L * packed.length + 16); // Room for the largest possible delta
+        int start = (int) (position - windowStart);
+        window.position(start + FRAME_HEADER);
+        boolean key = (frames % interval) == 0;
+        if (!key) { // Tries a delta, falling back to a key frame if it is too big
+            encode();
+            key = window.position() - start - FRAME_HEADER >= packed.length;
+            if (key) window.position(start + FRAME_HEADER);
+        }
+        else apply(); // Brings the packed cells up to date without encoding them
+        if (key) window.put(packed);
+        if (frames % interval == 0) { // Indexes scheduled key frames
+            int k = (int) (frames / interval);
+            if (k == index.length) index = Arrays.copyOf(index, index.length * 2);
+            index[k] = position;
+        }
+        int length = window.position() - start - FRAME_HEADER;
+        window.put(start + FRAME_HEADER + length, (byte) 0); // Marks the end of the trace, so what's left of a delta that was too big can't be mistaken for the next frame
+        window.put(start, key ? KEY : DELTA).putInt(start + 1, length).putInt(start + 5, s.count[0]).putInt(start + 9, s.count[1]).putInt(start + 13, s.count[2]);
+        position += FRAME_HEADER + length;
+        frames ++;
+    }
+
+    @Override
+    public void done(Simulation s) { // Writes the index, then fills in the header
+        try {
+            close();
+        } catch (IOException e) {
+            if (error == null) error = e;
+        }
+    }
+
+    private void close() throws IOException {
+        int keys = (int) ((frames + interval - 1) / interval);
+        long indexPosition = position;
+        map(position, 8L * keys);
+        for (int k = 0; k < keys; k++) window.putLong(index[k]);
+        position += 8L * keys;
+        map(0, HEADER);
+        window.putLong(40, frames).putLong(48, indexPosition);
+        window.force();
+        window = null;
+        try {
+            channel.truncate(position); // Removes the unused part of the last window
+        } finally {
+            channel.close();
+        }
+    }
+
+    private void encode() { // Writes the cells that have changed since the last frame as a delta, updating packed
+        int encoded = 0; // The packed bytes written so far, as a run of bytes or skipped as zeros
+        for (int word = changed.next(0); word >= 0; word = changed.next(word + 1)) { // Only the words with cells that changed
+            int from = word << 4, end = Math.min(from + 16, packed.length); // The packed bytes of this word's 64 cells
+            if (from > encoded) skip(from - encoded); // Skips the unchanged cells since the last changed word at once
+            encoded = end;
+            long bits = changed.take(word);
+            Arrays.fill(block, (byte) 0);
+            xor(word, bits, from);
+            for (int b = 0; b < end - from; b++) {
+                if (block[b] == 0) skip(1);
+                else literal[literalLength ++] = block[b];
+            }
+        }
+        if (literalLength > 0) run(); // Trailing zeros are left out
+        zeros = 0;
+    }
+
+    private void apply() { // Brings packed up to date with every changed cell, without encoding them
+        for (int word = changed.next(0); word >= 0; word = changed.next(word + 1)) xor(word, changed.take(word), word << 4);
+    }
+
+    private void xor(int word, long bits, int from) { // Updates the packed cells of a word, keeping the changed bits in block, which starts at packed byte from
+        byte[] rendered = engine.rendered;
+        for (; bits != 0; bits &= bits - 1) { // For each set bit, clearing the lowest one each time
+            int c = (word << 6) + Long.numberOfTrailingZeros(bits);
+            int b = c >> 2, shift = (c & 3) << 1;
+            int difference = (((packed[b] >> shift) & 3) ^ rendered[c]) << shift;
+            packed[b] ^= (byte) difference;
+            block[b - from] ^= (byte) difference;
+        }
+    }
+
+    private void skip(int bytes) { // Adds zero bytes to the run being encoded
+        if (literalLength > 0) run();
+        zeros += bytes;
+    }
+
+    private void run() { // Writes a run of zeros followed by bytes
+        putVarint(zeros);
+        putVarint(literalLength);
+        window.put(literal, 0, literalLength);
+        zeros = literalLength = 0;
+    }
+
+    private void putVarint(int value) { // Writes 7 bits at a time, the high bit set on every byte except the last
+        while ((value & ~0x7F) != 0) {
+            window.put((byte) (value | 0x80));
+            value >>>= 7;
+        }
+        window.put((byte) value);
+    }
+
+    private void map(long start, long bytes) { // Makes sure the window covers the given part of the file, moving it if not
+        if (window != null && start >= windowStart && start + bytes <= windowStart + window.capacity()) {
+            window.position((int) (start - windowStart));
+            return;
+        }
+        try {
+            windowStart = start;
+            window = channel.map(FileChannel.MapMode.READ_WRITE, start, Math.max(bytes, WINDOW)); // Grows the file to fit
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // Only while ticking, where nothing can be thrown but runtime exceptions
+        }
+    }
+}
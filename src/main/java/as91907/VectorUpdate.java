@@ -0,0 +1,67 @@
+/*
+ *  AS91907.VectorUpdate
+ *  Last Updated: 17/10/2026
+ *  Purpose: The update of ArrayEngine written with the Vector API, advancing a whole vector of agents' states at once with SIMD instructions, and tallying the states in vector counters that are only added up at the end.
+ *  Needs the jdk.incubator.vector module, so it is only used when the JVM was started with --add-modules jdk.incubator.vector. Otherwise this class is never loaded, and ArrayEngine uses its scalar update.
+ *  Gives exactly the same states, counts and changed cells as the scalar update.
+ */
+
+package as91907;
+
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+final class VectorUpdate {
+    private static final VectorSpecies<Integer> SPECIES = IntVector.SPECIES_PREFERRED; // The widest vectors the CPU has
+    private static final int LANES = SPECIES.length(); // Agents in each vector. A power of two up to 16, so a vector starting at a multiple of LANES has all of its pending bits in one word
+    private static final long LANE_BITS = (1L << LANES) - 1; // The pending bits of one vector, at the bottom of a word
+
+    private VectorUpdate() {}
+
+    static int update(ArrayEngine e, int from, int to, int[] count) { // Updates the states of agents from (inclusive) to to (exclusive), the same as ArrayEngine.update(). Returns the number of new infections.
+        // The agents before the first multiple of LANES, and after the last whole vector, are updated by the scalar update
+        int first = Math.min((from + LANES - 1) & -LANES, to);
+        int last = first + (to - first) / LANES * LANES;
+        int infections = e.updateScalar(from, first, count) + e.updateScalar(last, to, count);
+
+        final int[] state = e.state, x = e.x, y = e.y;
+        final long[] pending = e.pending;
+        final int infectionCooldown = e.s.INFECTION_COOLDOWN, immunityCooldown = e.s.IMMUNITY_COOLDOWN;
+        final boolean tracking = e.dirty != null;
+        IntVector normals = IntVector.zero(SPECIES), infecteds = IntVector.zero(SPECIES); // Each lane counts the NORMAL and INFECTED agents it has seen
+        for (int i = first; i < last; i += LANES) {
+            IntVector st = IntVector.fromArray(SPECIES, state, i);
+            VectorMask<Integer> active = st.compare(VectorOperators.GT, 0); // The agents that are not NORMAL
+            IntVector next = st.add(1, active); // Increments their states
+            next = next.blend(0, next.compare(VectorOperators.GT, immunityCooldown)); // Those that have reached the end of their immunity reset to NORMAL
+            // Agents that have been infected start at 1, taking their bits out of pending
+            long word = pending[i >> 6], bits = (word >>> (i & 63)) & LANE_BITS;
+            VectorMask<Integer> hit = null;
+            if (bits != 0) { // Skips the mask when nobody in the vector was infected, which is most of the time
+                pending[i >> 6] = word & ~(bits << (i & 63));
+                hit = VectorMask.fromLong(SPECIES, bits);
+                next = next.blend(1, hit);
+                infections += Long.bitCount(bits);
+            }
+            next.intoArray(state, i);
+            if (tracking) { // Marks the cells of agents that just became NORMAL or IMMUNE, or were infected
+                VectorMask<Integer> changed = active.and(next.compare(VectorOperators.EQ, 0).or(next.compare(VectorOperators.EQ, infectionCooldown + 1)));
+                long lanes = changed.toLong() | bits;
+                for (; lanes != 0; lanes &= lanes - 1) {
+                    int j = i + Long.numberOfTrailingZeros(lanes);
+                    e.mark(x[j], y[j]);
+                }
+            }
+            // Tallies the new states in each lane
+            normals = normals.add(1, next.compare(VectorOperators.EQ, 0));
+            infecteds = infecteds.add(1, next.compare(VectorOperators.GT, 0).and(next.compare(VectorOperators.LE, infectionCooldown)));
+        }
+        int normal = normals.reduceLanes(VectorOperators.ADD), infected = infecteds.reduceLanes(VectorOperators.ADD);
+        count[0] += normal;
+        count[1] += infected;
+        count[2] += last - first - normal - infected; // Every other agent is IMMUNE
+        return infections;
+    }
+}
@@ -0,0 +1,199 @@
+/*
+ *  AS91907.Viewer
+ *  Last Updated: 17/10/2026
+ *  Purpose: The GUI for a running Simulation. Allows viewing of a visualisation, pie chart and epidemic curve, and facilitates saving simulation details to a CSV file when the simulation ends. The details are streamed to a temporary file while it runs, which is copied when saved.
+ *  The simulation only publishes Frames, and the renders are drawn from them on a shared render thread at up to 60 frames per second, so the simulation never waits for drawing.
+ */
+
+package as91907;
+
+import java.awt.Color;
+import java.awt.Desktop;
+import java.awt.Toolkit;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.awt.event.WindowEvent;
+import java.awt.event.WindowAdapter;
+import javax.swing.JButton;
+import javax.swing.JFileChooser;
+import javax.swing.JFrame;
+import javax.swing.JLabel;
+import javax.swing.JMenuBar;
+import javax.swing.JMenuItem;
+import javax.swing.KeyStroke;
+import javax.swing.SwingConstants;
+import javax.swing.SwingUtilities;
+import javax.swing.WindowConstants;
+
+public class Viewer implements Observer {
+    // Labels for the different renders in the simulation
+    private static final char VISUALISATION = 0;
+    private static final char PIE = 1;
+    private static final char CURVE = 2;
+
+    private static final long CHECKPOINT_MILLIS = 60_000; // Shortest time between checkpoints
+    static final long FRAME_NANOS = 1_000_000_000 / 60; // Shortest time between frames
+    static final ScheduledExecutorService RENDERER = Executors.newSingleThreadScheduledExecutor(r -> { // The render thread, shared by every Viewer and Replay
+        Thread thread = new Thread(r, "Render");
+        thread.setDaemon(true); // Doesn't keep the program open
+        return thread;
+    });
+
+    private final JFrame main; // The main window, allowing for toggling of visualisations, and termination.
+    private final Frame frame; // The latest frame published by the simulation
+    private final Render[] renders; // Stores the toggleable renders
+    private final JLabel tickCounter;
+    private final ScheduledFuture<?> drawing; // The repeating task drawing this Viewer's frames
+    private final File spool; // The temporary file the CSV is streamed to
+
+    public Viewer(Simulation s, boolean checkpoint) throws IOException { // Also checkpoints the simulation, if asked to
+        frame = new Frame(s); // Has the engine keep track of changed cells, and copies its starting state. First, as it fails if the grid is too big to show
+        spool = File.createTempFile("simulation" + s.ID + "-", ".csv");
+        spool.deleteOnExit(); // Only kept until the program closes, unless saved
+        s.addObserver(new HistoryWriter(s, spool)); // Added first, so it is done before the save button appears
+        new Metrics(s, 0); // Shown over JMX, without logging
+        if (checkpoint) { // Saved in the working directory, so it can be restored from the launcher after a crash or an early close
+            Checkpointer checkpointer = new Checkpointer(s, File.createTempFile("simulation" + s.SEED + "-", ".checkpoint", new File(".")), CHECKPOINT_MILLIS); // Named uniquely, so simulations with the same seed don't overwrite each other's
+            checkpointer.temporary = true; // Only kept if the simulation doesn't finish
+            s.addObserver(checkpointer);
+        }
+        // Creates the Renders, storing them in an array
+        renders = new Render[] {
+                initialiseVisualisation(frame),
+                initialisePie(frame),
+                new CurveRender(frame)
+        };
+
+        // Creates the main GUI for the simulation
+        main = new JFrame("Simulation " + s.ID + " (Seed " + s.SEED + ")"); // Shows the seed, so the simulation can be repeated
+        main.setDefaultCloseOperation(WindowConstants.DO_NOTHING_ON_CLOSE);
+        main.addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosing(WindowEvent e) { // On close button pressed:
+                if (s.running) s.stop(); // If the simulation is running, stop it early
+                else main.dispose(); // If the simulation is not running, close the simulation.
+            }
+        });
+        // Creates a JMenuBar
+        JMenuBar bar = new JMenuBar();
+        main.setJMenuBar(bar);
+
+        // Creates menu items to toggle visibility of the renders
+        for (char i : new char[]{VISUALISATION, PIE, CURVE}) { // Using foreach to make i semi-final, for action listener
+            JMenuItem renderButton = new JMenuItem(switch (i) {
+                case VISUALISATION -> "Visualisation";
+                case PIE -> "Pie";
+                case CURVE -> "Curve";
+                default -> throw new IllegalStateException();
+            });
+            renderButton.setAccelerator(KeyStroke.getKeyStroke((char) ('1' + i), Toolkit.getDefaultToolkit().getMenuShortcutKeyMaskEx()));
+            renderButton.addActionListener(l -> renders[i].toggle());
+            bar.add(renderButton);
+        }
+
+        // Creates a label to display the number of ticks remaining.
+        tickCounter = new JLabel("Running endlessly"); // This text will be written over, unless it is running endlessly
+        tickCounter.setHorizontalAlignment(SwingConstants.CENTER);
+        main.add(tickCounter);
+
+        main.pack();
+        main.setVisible(true);
+
+        s.addObserver(this); // Starts watching the simulation
+        drawing = RENDERER.scheduleAtFixedRate(this::draw, 0, FRAME_NANOS, TimeUnit.NANOSECONDS); // Starts drawing frames
+    }
+
+    @Override
+    public void ticked(Simulation s) { // Runs after updates, publishing a frame if the render thread is ready for one
+        frame.publish(s); // Returns straight away otherwise, so ticks in between frames are skipped
+    }
+
+    private void draw() { // Draws the latest frame into the visible renders and the tick counter. Runs on the render thread
+        frame.lock.lock(); // Stops the simulation publishing halfway through drawing
+        try {
+            for (Render r : renders) {
+                r.record();
+                if (r.showing()) r.refresh(); // Redraws each visible render
+            }
+            if (frame.ticks > 0) { // If simulation has a maximum tick count, update the tick counter on Swing's thread
+                String ticks = frame.ticks + " ticks left.";
+                SwingUtilities.invokeLater(() -> tickCounter.setText(ticks));
+            }
+        } finally {
+            frame.wanted = true; // Asks for the next frame
+            frame.lock.unlock();
+        }
+    }
+
+    @Override
+    public void done(Simulation s) { // Handles the end of the simulation, removing the renders and allowing for saving to CSV
+        drawing.cancel(false); // Stops drawing frames
+        SwingUtilities.invokeLater(() -> finished(s)); // Runs on the simulation's thread, so the windows are changed on Swing's
+    }
+
+    private void finished(Simulation s) { // Replaces the renders and tick counter with a button to save to CSV. Runs on Swing's thread
+        for (Render r : renders) r.dispose(); // Removes all renders
+        main.setJMenuBar(null); // Removes the menu bar
+        main.getContentPane().removeAll(); // Removes the tick counter
+        // Creates a file chooser for saving the simulation
+        JFileChooser chooser = new JFileChooser();
+        chooser.setSelectedFile(new File("simulation" + s.ID + ".csv")); // Path defaults to simulation[ID].csv in the default directory
+        // Creates a button to save to CSV
+        JButton button = new JButton("Save to CSV");
+        button.addActionListener(l -> { // On button press
+            if (chooser.showSaveDialog(main) == JFileChooser.APPROVE_OPTION) try { // showSaveDialog creates a popup, waits for user confirmation, then returns status (CANCEL, APPROVE, ERROR)
+                // If user approved save, tries to write
+                Files.copy(spool.toPath(), chooser.getSelectedFile().toPath(), StandardCopyOption.REPLACE_EXISTING); // Copies the streamed CSV to the selected file
+                Desktop.getDesktop().open(chooser.getSelectedFile().getParentFile()); // Opens the directory in the system's file manager
+            } catch (IOException ignored) {} // Do nothing if write failed
+        });
+        main.add(button);
+        button.requestFocusInWindow();
+        main.revalidate();
+    }
+
+    static Render initialiseVisualisation(Frame frame) { // Allows you to see the cells in real time
+        return new VisualisationRender(frame);
+    }
+
+    static Render initialisePie(Frame frame) { // Displays the proportion of states using a pie chart
+        return new Render(frame, "Pie Chart ", 120, 120) { // Creates the visualisation
+            private int minSize = 120; // Stores the current minimum between the width and height, which determines the width and height of the image
+
+            @Override
+            public boolean needNewImage() {
+                int newMinSize = Math.max(Math.min(w, h), 1); // Gets the new minimum size
+                if (newMinSize == minSize) return false; // If the minimum size is correct, do nothing
+                // Otherwise, update the minimum size, and return true
+                minSize = newMinSize;
+                return true;
+            }
+
+            @Override
+            public void newImage() {
+                image = new Image(minSize, minSize) { // Create a new Image
+                    private double start; // The current position of the arc
+                    @Override
+                    public void render() {
+                        start = 0; // Resets the start
+
+                        for (int i = 0; i < 3; i++) fill(f.count[i], Main.COLOUR[i]); // Fills an arc for each state, using the proportions of states in the frame
+                    }
+
+                    private void fill(int amount, Color colour) {
+                        double arc = (double) 360 * amount / f.total; // Gets the arc length
+                        g.setColor(colour); // Sets the colour
+                        g.fillArc(0, 0, w, h, (int) Math.round(start), (int) Math.round(arc)); // Fills an arc at the position and size corresponding to the closest degree to our start and arc
+                        start += arc; // Increments the starting position for the next state
+                    }
+                };
+            }
+        };
+    }
+}
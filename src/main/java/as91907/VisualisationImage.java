@@ -0,0 +1,102 @@
+/*
+ *  AS91907.VisualisationImage
+ *  Last Updated: 17/10/2026
+ *  Purpose: The Image of the visualisation. Draws the cells of one level of a Pyramid that are in view, each as a cellW by cellH block of pixels, straight into the image's pixels, only redrawing the cells that have changed since the last render.
+ *  The image is never bigger than the window, and only the cells in view are looked at, so drawing takes the same time and memory however big the grid is.
+ *  Needs no window, so it can be drawn headless.
+ */
+
+package as91907;
+
+import java.awt.image.DataBufferInt;
+import java.util.Arrays;
+
+public class VisualisationImage extends Image {
+    private final Pyramid p; // The levels being drawn
+    private int[] pixels; // The pixels of the image, written to directly. Pixel (x, y) is at index y * w + x
+    private int[] colours; // The colour of each state when the cells were drawn
+    // The view: the level drawn, the size of its cells in pixels, and the cell at the top left of the image, which can be outside the grid
+    private int level, cellW, cellH, originX, originY;
+    private boolean moved; // Whether the view has changed since the last render
+
+    public VisualisationImage(Pyramid p, int w, int h) { // Creates an image of the given size, showing nothing until it is given a view
+        super(w, h);
+        this.p = p;
+    }
+
+    public void view(int level, int cellW, int cellH, int originX, int originY) { // Sets what the image shows from the next render
+        if (level == this.level && cellW == this.cellW && cellH == this.cellH && originX == this.originX && originY == this.originY) return;
+        this.level = level;
+        this.cellW = cellW;
+        this.cellH = cellH;
+        this.originX = originX;
+        this.originY = originY;
+        moved = true;
+    }
+
+    @Override
+    public void render() {
+        if (p == null || cellW == 0) return; // Called by Image's constructor, before there is anything to draw
+        if (pixels == null) { // First render, so draw everything
+            pixels = ((DataBufferInt) getRaster().getDataBuffer()).getData();
+            colours = new int[Main.COLOUR.length];
+            moved = true;
+        }
+        for (int i = 0; i < colours.length; i++) if (colours[i] != Main.COLOUR[i].getRGB()) moved = true; // If a colour has been changed, draw every cell in the new colours
+        if (moved) {
+            redraw();
+            return;
+        }
+
+        // Draws each cell in view that has changed since the last render, a column at a time
+        byte[] cells = p.cells[level];
+        long[] changed = p.changed[level];
+        final int height = p.height[level];
+        int top = Math.max(originY, 0), bottom = Math.min(originY + (h + cellH - 1) / cellH, height); // The rows in view
+        int left = Math.max(originX, 0), right = Math.min(originX + (w + cellW - 1) / cellW, p.width[level]); // The columns in view
+        if (top >= bottom) return;
+        for (int x = left; x < right; x++) {
+            int first = x * height + top, last = x * height + bottom - 1; // The cells of the column in view
+            for (int word = first >> 6; word <= last >> 6; word++) {
+                long mask = -1L;
+                if (word == first >> 6) mask &= -1L << first; // Only the bits in view
+                if (word == last >> 6) mask &= -1L >>> (63 - (last & 63));
+                long bits = changed[word] & mask;
+                if (bits == 0) continue; // Skips 64 unchanged cells at once
+                changed[word] &= ~bits;
+                for (; bits != 0; bits &= bits - 1) { // For each set bit, clearing the lowest one each time
+                    int c = (word << 6) + Long.numberOfTrailingZeros(bits);
+                    draw(x, c - x * height, colours[cells[c]]);
+                }
+            }
+        }
+    }
+
+    public void redraw() { // Draws every cell in view, in the current colours
+        for (int i = 0; i < colours.length; i++) colours[i] = Main.COLOUR[i].getRGB();
+        moved = false;
+        Arrays.fill(pixels, colours[Main.EMPTY]); // Anywhere outside the grid
+        byte[] cells = p.cells[level];
+        final int height = p.height[level];
+        int top = Math.max(originY, 0), bottom = Math.min(originY + (h + cellH - 1) / cellH, height);
+        int left = Math.max(originX, 0), right = Math.min(originX + (w + cellW - 1) / cellW, p.width[level]);
+        for (int x = left; x < right; x++) for (int y = top; y < bottom; y++) draw(x, y, colours[cells[x * height + y]]);
+        // Every cell in view is up to date, but the ones out of view are left marked as changed, so they are drawn if they come into view
+        for (int x = left; x < right && top < bottom; x++) {
+            int first = x * height + top, last = x * height + bottom - 1;
+            long[] changed = p.changed[level];
+            for (int word = first >> 6; word <= last >> 6; word++) {
+                long mask = -1L;
+                if (word == first >> 6) mask &= -1L << first;
+                if (word == last >> 6) mask &= -1L >>> (63 - (last & 63));
+                changed[word] &= ~mask;
+            }
+        }
+    }
+
+    private void draw(int x, int y, int colour) { // Fills the pixels of cell (x, y) of the level with a colour, cutting off anything past the edge of the image
+        int px = (x - originX) * cellW, py = (y - originY) * cellH; // The cell's top left pixel
+        int end = Math.min(px + cellW, w);
+        for (int row = py; row < Math.min(py + cellH, h); row++) Arrays.fill(pixels, row * w + px, row * w + end, colour); // Fills each row of the cell
+    }
+}
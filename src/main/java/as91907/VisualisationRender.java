@@ -0,0 +1,147 @@
+/*
+ *  AS91907.VisualisationRender
+ *  Last Updated: 17/10/2026
+ *  Purpose: The Render of the visualisation. Shows the cells from the frame's Pyramid, at the most detailed level that fits in the window, so a grid bigger than the window still only needs an image the size of the window.
+ *  Scrolling the mouse wheel zooms in or out around the pointer, dragging moves around, and double clicking goes back to fitting the whole grid in the window.
+ */
+
+package as91907;
+
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.awt.event.MouseWheelEvent;
+
+public class VisualisationRender extends Render {
+    private static final int MAX_SCALE = 64; // The biggest a cell can be zoomed in to, in pixels
+    private static final int MAX_SIZE = 1024; // The biggest the window starts, in pixels
+
+    // None of these have initialisers, as Render's constructor uses them before this constructor runs
+    private boolean zoomed; // Whether the view has been zoomed or moved, instead of fitting the whole grid
+    private int level, scale; // When zoomed, the level shown and the size of its cells in pixels
+    private double centreX, centreY; // When zoomed, the cell of level 0 in the middle of the window
+    // The view the image was last given, used to work out where the pointer is. Written on the render thread, and read by Swing
+    private int viewLevel, cellW, cellH, originX, originY, imageW, imageH;
+
+    public VisualisationRender(Frame f) {
+        super(f, "Visualisation ", Math.min(f.WIDTH, MAX_SIZE), Math.min(f.HEIGHT, MAX_SIZE));
+        MouseAdapter mouse = new MouseAdapter() {
+            private int lastX, lastY; // Where the pointer was when last dragged
+
+            @Override
+            public void mouseWheelMoved(MouseWheelEvent e) {
+                zoom(e.getX(), e.getY(), e.getWheelRotation() < 0);
+            }
+
+            @Override
+            public void mousePressed(MouseEvent e) {
+                lastX = e.getX();
+                lastY = e.getY();
+            }
+
+            @Override
+            public void mouseDragged(MouseEvent e) {
+                pan(e.getX() - lastX, e.getY() - lastY);
+                lastX = e.getX();
+                lastY = e.getY();
+            }
+
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                if (e.getClickCount() == 2) fit();
+            }
+        };
+        addMouseWheelListener(mouse);
+        addMouseListener(mouse);
+        addMouseMotionListener(mouse);
+    }
+
+    @Override
+    public void refresh() { // Brings the pyramid up to date with the frame first, so the image draws from it
+        f.pyramid.update();
+        super.refresh();
+    }
+
+    @Override
+    public synchronized boolean needNewImage() { // Works out the view for the current window, only needing a new image if its size has changed
+        int w = Math.max(this.w, 1), h = Math.max(this.h, 1);
+        if (zoomed) { // The image fills the window, with the centre cell in the middle, unless that would show past the edge of the grid
+            viewLevel = level;
+            cellW = cellH = scale;
+            imageW = w;
+            imageH = h;
+            originX = origin(centreX, w, f.pyramid.width[level]);
+            originY = origin(centreY, h, f.pyramid.height[level]);
+        } else { // The most detailed level that fits, with its cells as big as fit, the same as when the grid is smaller than the window
+            viewLevel = f.pyramid.level(w, h);
+            cellW = Math.max(w / f.pyramid.width[viewLevel], 1);
+            cellH = Math.max(h / f.pyramid.height[viewLevel], 1);
+            imageW = f.pyramid.width[viewLevel] * cellW;
+            imageH = f.pyramid.height[viewLevel] * cellH;
+            originX = originY = 0;
+        }
+        if (image != null && image.w == imageW && image.h == imageH) {
+            ((VisualisationImage) image).view(viewLevel, cellW, cellH, originX, originY);
+            return false;
+        }
+        return true;
+    }
+
+    private int origin(double centre, int pixels, int cells) { // Returns the first cell of a level in view, given the cell of level 0 in the middle
+        int shown = pixels / scale; // Whole cells in view
+        if (cells <= shown) return -(shown - cells) / 2; // The whole level fits, so it is put in the middle
+        int first = (int) Math.round(centre / (1 << level) - shown / 2.0);
+        return Math.max(0, Math.min(first, cells - shown)); // Doesn't go past either edge
+    }
+
+    @Override
+    public synchronized void newImage() {
+        VisualisationImage created = new VisualisationImage(f.pyramid, imageW, imageH);
+        created.view(viewLevel, cellW, cellH, originX, originY);
+        created.render();
+        image = created;
+    }
+
+    private synchronized void zoom(int x, int y, boolean in) { // Zooms in or out, keeping the cell under the pointer where it is. Runs on Swing's thread
+        double[] cell = cell(x, y);
+        if (!zoomed) { // Starts from the view it is fitting with
+            zoomed = true;
+            level = viewLevel;
+            scale = Math.min(cellW, cellH);
+        }
+        if (in) {
+            if (level > 0) level --; // Shows more detail before making cells bigger
+            else scale = Math.min(scale * 2, MAX_SCALE);
+        } else {
+            if (scale > 1) scale /= 2; // Makes cells smaller before showing less detail
+            else level = Math.min(level + 1, f.pyramid.levels - 1);
+        }
+        // Moves the centre so the same cell is under the pointer
+        centreX = cell[0] - (x - getWidth() / 2.0) / scale * (1 << level);
+        centreY = cell[1] - (y - getHeight() / 2.0) / scale * (1 << level);
+    }
+
+    private synchronized void pan(int dx, int dy) { // Moves the view by a number of pixels. Runs on Swing's thread
+        if (!zoomed) { // Starts from the middle of the view it is fitting with
+            double[] cell = cell(getWidth() / 2, getHeight() / 2);
+            zoomed = true;
+            level = viewLevel;
+            scale = Math.min(cellW, cellH);
+            centreX = cell[0];
+            centreY = cell[1];
+        }
+        centreX = Math.max(0, Math.min(centreX - (double) dx / scale * (1 << level), f.WIDTH));
+        centreY = Math.max(0, Math.min(centreY - (double) dy / scale * (1 << level), f.HEIGHT));
+    }
+
+    private synchronized void fit() { // Goes back to fitting the whole grid in the window
+        zoomed = false;
+    }
+
+    private double[] cell(int x, int y) { // Returns the cell of level 0 under a pixel of the window, in the last view drawn
+        double left = (getWidth() - imageW) / 2.0, top = (getHeight() - imageH) / 2.0; // Where paint puts the image
+        return new double[]{
+                ((x - left) / cellW + originX) * (1 << viewLevel),
+                ((y - top) / cellH + originY) * (1 << viewLevel)
+        };
+    }
+}
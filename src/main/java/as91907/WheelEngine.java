@@ -0,0 +1,126 @@
+/*
+ *  AS91907.WheelEngine
+ *  Last Updated: 17/10/2026
+ *  Purpose: An ArrayEngine that doesn't visit every agent to update their states. Once an agent is infected, the ticks it becomes IMMUNE and NORMAL again are already known,
+ *  so each agent is put in a timer wheel at the tick of its next change, and each tick only the agents in that tick's slot, and the newly infected, are updated. The counts of each state are kept up to date as they change, instead of being counted every tick.
+ *  Moves and spreads exactly the same as ArrayEngine, so gives exactly the same simulation.
+ */
+
+package as91907;
+
+import java.util.Arrays;
+
+public class WheelEngine extends ArrayEngine {
+    // The timer wheel. Every change is less than a whole turn of the wheel away, so each slot only holds the agents changing at one tick
+    // Slot t % slots holds the agents changing at the update of tick t, in a linked list through next
+    private final int slots;
+    private final int[] head; // The first agent in each slot, or -1 if there are none
+    private final int[] next; // The agent after each agent in its slot, or -1 if it is the last
+    private final int[] slot; // The slot each agent is in, which is how far it is through its state. Only meaningful while it is INFECTED or IMMUNE
+
+    private final int[] infected; // The agents infected this tick, in the order they were infected
+    private int infections; // Number of agents infected this tick
+    private final int[] tally = new int[3]; // The counts of each state, kept up to date as agents change
+
+    public WheelEngine(Simulation s, int[] startingCount, boolean sparse) {
+        super(s, startingCount, sparse);
+        slots = s.IMMUNITY_COOLDOWN + 1;
+        head = new int[slots];
+        next = new int[agents];
+        slot = new int[agents];
+        infected = new int[agents];
+        schedule();
+    }
+
+    public WheelEngine(Simulation s, Checkpoint c, boolean sparse) { // Restores the agents of a checkpoint, putting them back in the wheel where they were
+        super(s, c, sparse);
+        slots = s.IMMUNITY_COOLDOWN + 1;
+        head = new int[slots];
+        next = new int[agents];
+        slot = new int[agents];
+        infected = new int[agents];
+        schedule();
+    }
+
+    private void schedule() { // Puts every INFECTED and IMMUNE agent in the wheel at the tick of their next change, from their internal states
+        // Internal states go up by one each tick, so an agent in state st changes when it reaches the end of its state, that many ticks from the next update
+        // An agent already at or past the end, like a starting IMMUNE agent without any immunity, changes at the next update, the same as in ArrayEngine
+        Arrays.fill(head, -1);
+        final int infectionCooldown = s.INFECTION_COOLDOWN, immunityCooldown = s.IMMUNITY_COOLDOWN;
+        for (int i = 0; i < agents; i++) {
+            int st = state[i];
+            if (st == 0) tally[0] ++;
+            else if (st <= infectionCooldown) {
+                tally[1] ++;
+                add(i, Math.max(s.elapsed + infectionCooldown - st, s.elapsed));
+                state[i] = 1; // States are only changed when an agent changes, so each is kept at the start of its range
+            } else {
+                tally[2] ++;
+                add(i, Math.max(s.elapsed + immunityCooldown - st, s.elapsed));
+                state[i] = infectionCooldown + 1;
+            }
+        }
+    }
+
+    private void add(int i, long tick) { // Puts an agent in the slot of a tick
+        int t = (int) Math.floorMod(tick, (long) slots);
+        slot[i] = t;
+        next[i] = head[t];
+        head[t] = i;
+    }
+
+    @Override
+    protected void infect(int i) { // Also remembers who was infected, so update only visits them
+        long bit = 1L << i;
+        if ((pending[i >> 6] & bit) != 0) return; // Already infected this tick
+        pending[i >> 6] |= bit;
+        infected[infections ++] = i;
+    }
+
+    @Override
+    public void update(int[] count) {
+        final int infectionCooldown = s.INFECTION_COOLDOWN, immunityCooldown = s.IMMUNITY_COOLDOWN;
+        final boolean tracking = dirty != null;
+        // Changes the agents at the end of their state this tick
+        int t = (int) (s.elapsed % slots);
+        for (int i = head[t], after; i >= 0; i = after) {
+            after = next[i]; // Stored first, as the agent may be added to another slot
+            if (state[i] == 1 && immunityCooldown > infectionCooldown) { // INFECTED becomes IMMUNE
+                state[i] = infectionCooldown + 1;
+                tally[1] --;
+                tally[2] ++;
+                add(i, s.elapsed + immunityCooldown - infectionCooldown);
+            } else { // IMMUNE, or INFECTED without any immunity, becomes NORMAL
+                tally[state[i] == 1 ? 1 : 2] --;
+                tally[0] ++;
+                state[i] = 0;
+            }
+            if (tracking) mark(x[i], y[i]);
+        }
+        head[t] = -1;
+        // Infects the agents infected this tick, which are all NORMAL, so none were in the wheel
+        for (int j = 0; j < infections; j++) {
+            int i = infected[j];
+            pending[i >> 6] &= ~(1L << i); // Resets the flag
+            state[i] = 1;
+            add(i, s.elapsed + infectionCooldown); // Reaches the end of INFECTED after being INFECTED for INFECTION_COOLDOWN updates, including this one
+            if (tracking) mark(x[i], y[i]);
+        }
+        tally[0] -= infections;
+        tally[1] += infections;
+        s.infections += infections;
+        infections = 0;
+        for (int i = 0; i < 3; i++) count[i] += tally[i];
+    }
+
+    @Override
+    public void save(Checkpoint c) { // Saves the internal state each agent would have, from how far it is from its next change
+        super.save(c);
+        final int infectionCooldown = s.INFECTION_COOLDOWN, immunityCooldown = s.IMMUNITY_COOLDOWN;
+        for (int i = 0; i < agents; i++) {
+            if (state[i] == 0) continue;
+            int left = Math.floorMod(slot[i] - (int) (s.elapsed % slots), slots); // Updates until its next change. Always less than a whole turn of the wheel
+            c.state[i] = (state[i] == 1 ? infectionCooldown : immunityCooldown) - left;
+        }
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ *  AS91907.Worker
+ *  Last Updated: 17/10/2026
+ *  Purpose: A process running one tile of a ClusterEngine's grid. Connects to the coordinator, which gives it its tile, then connects to the workers of the tiles either side, to swap the agents walking between them.
+ *  Each time the coordinator says to, runs a tick of its tile and sends back the counts and infections. Exits when the coordinator is done.
+ *  Usage: java -cp as91907.jar as91907.Worker --coordinator host:port    Joins a simulation started with Batch --workers N --port port. Batch starts its own workers on this machine if no port is given
+ */
+
+package as91907;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+
+public class Worker {
+    private static final int HALO_BUFFER = 1 << 16; // Bytes buffered in each direction between neighbours
+
+    public static void main(String[] args) {
+        Batch.parse(args);
+        String coordinator = Batch.read("coordinator");
+        Batch.finish();
+        if (coordinator == null || coordinator.lastIndexOf(':') < 0) Batch.fail("--coordinator host:port is needed");
+        String host = coordinator.substring(0, coordinator.lastIndexOf(':'));
+        int port = 0;
+        try {
+            port = Integer.parseInt(coordinator.substring(coordinator.lastIndexOf(':') + 1));
+        } catch (NumberFormatException e) {
+            Batch.fail("--coordinator must end with a port number");
+        }
+
+        try (ServerSocket halo = halo(host); Socket socket = new Socket(host, port)) { // Listens for the left neighbour before joining, so it can connect whenever it is ready
+            socket.setTcpNoDelay(true);
+            DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+            out.writeInt(halo.getLocalPort());
+            out.flush();
+
+            // Reads the tile, in the order ClusterEngine sends it
+            int index = in.readInt();
+            int width = in.readInt(), height = in.readInt();
+            int infectionDuration = in.readInt(), immunityDuration = in.readInt();
+            double infectionChance = in.readDouble();
+            long seed = in.readLong();
+            int first = in.readInt(), last = in.readInt();
+            int[] startingCount = new int[]{in.readInt(), in.readInt(), in.readInt()};
+            String right = in.readUTF(); // Empty for the last tile
+            int rightPort = right.isEmpty() ? 0 : in.readInt();
+
+            // Connects to the right neighbour, then waits for the left one. Every worker is already listening, so this never waits on a cycle
+            Socket toRight = right.isEmpty() ? null : new Socket(right, rightPort);
+            Socket toLeft = index == 0 ? null : halo.accept();
+            for (Socket neighbour : new Socket[]{toLeft, toRight}) if (neighbour != null) neighbour.setTcpNoDelay(true);
+            Simulation s = new Simulation(width, height, infectionDuration, immunityDuration, infectionChance, startingCount, -1, 0, seed, Engine.CLUSTER, null, sim -> {
+                try {
+                    return new TileEngine(sim, first, last, index, startingCount, input(toLeft), output(toLeft), input(toRight), output(toRight));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            out.writeByte(ClusterEngine.READY);
+            out.flush();
+
+            while (in.readByte() == ClusterEngine.TICK) { // Until told to STOP
+                int infections = s.infections;
+                s.tick();
+                out.writeInt(s.count[0]);
+                out.writeInt(s.count[1]);
+                out.writeInt(s.count[2]);
+                out.writeInt(s.infections - infections);
+                out.flush();
+            }
+            if (toLeft != null) toLeft.close();
+            if (toRight != null) toRight.close();
+        } catch (EOFException e) { // The coordinator exited, and prints its own reason
+            Batch.fail("The coordinator at " + coordinator + " closed the connection");
+        } catch (IOException | UncheckedIOException e) {
+            Batch.fail("Worker lost its connection to " + coordinator + ": " + e.getMessage());
+        } catch (IllegalArgumentException e) { // If the tile is too big
+            Batch.fail(e.getMessage());
+        }
+    }
+
+    private static ServerSocket halo(String coordinator) throws IOException { // Listens for the left neighbour, only on this machine if the coordinator is on it, as then every worker is
+        InetAddress address = InetAddress.getByName(coordinator);
+        return new ServerSocket(0, 1, address.isLoopbackAddress() ? address : null);
+    }
+
+    private static DataInputStream input(Socket socket) throws IOException {
+        return socket == null ? null : new DataInputStream(new BufferedInputStream(socket.getInputStream(), HALO_BUFFER));
+    }
+
+    private static DataOutputStream output(Socket socket) throws IOException {
+        return socket == null ? null : new DataOutputStream(new BufferedOutputStream(socket.getOutputStream(), HALO_BUFFER));
+    }
+}
@@ -0,0 +1,243 @@
+/*
+ *  AS91907.OffHeapEngine
+ *  Last Updated: 17/10/2026
+ *  Purpose: An Engine that works the same as PersonEngine, with the agents in a linked list for each state of each cell, but keeps the heads and counts of the lists and the agents' records in native memory from the Foreign Memory API, instead of on the heap.
+ *  The heap only holds a handful of objects however big the grid is, so the garbage collector has nothing to scan, and cells are indexed by longs, so the grid can have more cells than an array can hold.
+ *  All of the memory is freed as soon as the simulation is done, instead of whenever the garbage collector gets to it.
+ *  Gives exactly the same simulation as PersonEngine. Only compiled by the Java 21+ profiles of the build, as the API is a preview in Java 21 and final from Java 22.
+ */
+
+package as91907;
+
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+
+public class OffHeapEngine extends Engine {
+    // Each agent's record is RECORD bytes, at agent * RECORD, holding these ints at these offsets
+    private static final long X = 0, Y = 4; // Its position
+    private static final long STATE = 8; // Internal state, the same as Person.state
+    private static final long NEXT = 12; // The next agent in its list, the same as Person.next
+    private static final long INFECTED = 16; // 1 if it will become infected this round, the same as Person.infected
+    private static final long RECORD = 20;
+    private static final int NONE = -1; // The end of a list, or an empty cell
+
+    private final Arena arena; // Owns all of the memory, freeing it at once when closed
+    private final long cells; // Number of cells in the grid, which can be more than an int can count
+    private final int agents; // Number of agents
+    private final MemorySegment records; // The record of each agent
+    // The first agent of each cell's list of each state, an int at (c * 3 + state) * 4, where c = x * HEIGHT + y, or NONE if the list is empty
+    private MemorySegment position; // The lists the agents are in
+    private MemorySegment movement; // The lists the agents move into, which becomes position
+    private MemorySegment counts; // The number of agents in each list of position, at the same offset as its first agent. Brought up to date by update
+    private final int[] heads = new int[3], tails = new int[3]; // The lists of a cell being rebuilt by update
+    public final Rng random; // Random numbers for every agent, seeded from the simulation's seed
+
+    public OffHeapEngine(Simulation s, int[] startingCount) {
+        super(s);
+        cells = (long) s.WIDTH * s.HEIGHT;
+        agents = startingCount[Main.NORMAL] + startingCount[Main.INFECTED] + startingCount[Main.IMMUNE];
+        arena = Arena.ofShared(); // Shared, as a launched simulation runs on any of the Scheduler's threads
+        records = allocate(agents * RECORD);
+        lists();
+        random = new Rng(s.SEED);
+        // Creates the agents in the order NORMAL, INFECTED, IMMUNE, the same as PersonEngine
+        for (int j = 0, i = 0; j < 3; j++) {
+            int initial = switch (j) { // The internal state they start with
+                case Main.NORMAL -> 0;
+                case Main.INFECTED -> 1;
+                default -> s.INFECTION_COOLDOWN + 1;
+            };
+            for (int k = 0; k < startingCount[j]; k++, i++) {
+                set(i, X, random.nextInt(s.WIDTH));
+                set(i, Y, random.nextInt(s.HEIGHT));
+                set(i, STATE, initial);
+            }
+        }
+        for (int i = 0; i < agents; i++) push(i); // Puts each agent at the head of its cell's list for its state, the same as PersonEngine
+        finishMovement(); // Gets everything prepared for the simulation to start
+        for (long list = 0; list < cells * 3; list++) for (int p = head(position, list); p != NONE; p = get(p, NEXT)) add(counts, list, 1); // Counts each list, which update does from then on
+    }
+
+    public OffHeapEngine(Simulation s, Checkpoint c) { // Restores the agents of a checkpoint, in the same lists in the same order
+        super(s);
+        cells = (long) s.WIDTH * s.HEIGHT;
+        agents = c.agents;
+        arena = Arena.ofShared();
+        records = allocate(agents * RECORD);
+        lists();
+        position.fill((byte) NONE);
+        random = new Rng(c.seeds[0]);
+        int[] last = new int[3]; // The end of each list of the cell being restored. Each cell was saved together
+        for (int i = 0; i < agents; i++) {
+            set(i, X, (int) (c.cell[i] / s.HEIGHT));
+            set(i, Y, (int) (c.cell[i] % s.HEIGHT));
+            set(i, STATE, c.state[i]);
+            set(i, NEXT, NONE);
+            int state = state(i);
+            long list = c.cell[i] * 3 + state;
+            if (head(position, list) == NONE) position.set(ValueLayout.JAVA_INT, list * 4, i); // Starts a new list
+            else set(last[state], NEXT, i); // Adds it to the end of the list
+            last[state] = i;
+            add(counts, list, 1);
+        }
+    }
+
+    private MemorySegment allocate(long bytes) { // Allocates native memory, which is zeroed
+        try {
+            return arena.allocate(bytes, 8);
+        } catch (OutOfMemoryError e) {
+            arena.close(); // Frees anything already allocated
+            throw new IllegalArgumentException("Not enough native memory for " + cells + " cells and " + agents + " agents");
+        }
+    }
+
+    private void lists() { // Allocates the lists of every cell, with movement empty
+        position = allocate(cells * 3 * 4);
+        movement = allocate(cells * 3 * 4);
+        counts = allocate(cells * 3 * 4);
+        movement.fill((byte) NONE);
+    }
+
+    private int get(int i, long field) { // Reads a field of agent i
+        return records.get(ValueLayout.JAVA_INT, i * RECORD + field);
+    }
+    private void set(int i, long field, int value) { // Writes a field of agent i
+        records.set(ValueLayout.JAVA_INT, i * RECORD + field, value);
+    }
+    private static int head(MemorySegment lists, long list) { // Returns the first agent in a list, or the count of a list if given the counts
+        return lists.get(ValueLayout.JAVA_INT, list * 4);
+    }
+    private static void add(MemorySegment counts, long list, int amount) { // Adds to the count of a list
+        counts.set(ValueLayout.JAVA_INT, list * 4, counts.get(ValueLayout.JAVA_INT, list * 4) + amount);
+    }
+
+    private char state(int i) { // Converts the internal state of agent i to an external state, the same as Person.state()
+        int st = get(i, STATE);
+        if (st == 0) return Main.NORMAL;
+        if (st <= s.INFECTION_COOLDOWN) return Main.INFECTED;
+        return Main.IMMUNE;
+    }
+
+    @Override
+    public void spread() { // Spreads infections in each cell, giving each agent in its NORMAL list a single chance, the same as PersonEngine
+        for (long c = 0; c < cells; c++) {
+            int infected = head(counts, c * 3 + Main.INFECTED);
+            if (infected == 0) continue;
+            double chance = chance(infected);
+            for (int p = head(position, c * 3 + Main.NORMAL); p != NONE; p = get(p, NEXT)) if (random.nextDouble() < chance) set(p, INFECTED, 1);
+        }
+    }
+
+    @Override
+    public void move() { // Moves each agent in a random direction, into its new list in movement, in the same order as PersonEngine
+        final int width = s.WIDTH, height = s.HEIGHT;
+        for (long list = 0; list < cells * 3; list++) { // Each cell's lists in turn
+            for (int p = head(position, list), next; p != NONE; p = next) {
+                next = get(p, NEXT); // Stored first, as moving changes it
+                int x = get(p, X), y = get(p, Y);
+                byte[] moves = MOVES[edges(x, y, width, height)]; // Looks up the moves that are possible from here
+                byte move = moves[random.nextInt(moves.length)]; // Picks a random movement choice out of the available options
+                if (move != 0) {
+                    if (dirty != null) mark(x, y); // Marks the cell being left as changed
+                    switch (move) {
+                        case 1 -> set(p, Y, y - 1); // Move up
+                        case 2 -> set(p, X, x - 1); // Move left
+                        case 3 -> set(p, Y, y + 1); // Move down
+                        case 4 -> set(p, X, x + 1); // Move right
+                    }
+                    if (dirty != null) mark(get(p, X), get(p, Y)); // Marks the cell being entered as changed
+                }
+                push(p);
+            }
+        }
+    }
+
+    private void push(int p) { // Puts an agent at the head of the list for its state of its cell in movement, the same as Person.push()
+        long list = ((long) get(p, X) * s.HEIGHT + get(p, Y)) * 3 + state(p);
+        set(p, NEXT, head(movement, list));
+        movement.set(ValueLayout.JAVA_INT, list * 4, p);
+    }
+
+    @Override
+    public void finishMovement() { // Swaps the position and movement lists, clearing the new movement
+        MemorySegment old = position;
+        position = movement;
+        movement = old;
+        movement.fill((byte) NONE);
+    }
+
+    @Override
+    public void update(int[] count) { // Updates and counts each agent, rebuilding each cell's lists and counts in the same order as PersonEngine
+        final int infectionCooldown = s.INFECTION_COOLDOWN, immunityCooldown = s.IMMUNITY_COOLDOWN;
+        int normal = 0, infected = 0, immune = 0;
+        for (long c = 0; c < cells; c++) {
+            long first = c * 3;
+            for (int j = 0; j < 3; j++) {
+                heads[j] = tails[j] = NONE;
+                counts.set(ValueLayout.JAVA_INT, (first + j) * 4, 0); // Counted again as they are added to their new lists, and cleared if everyone has moved out
+            }
+            for (int j = 0; j < 3; j++) {
+                for (int p = head(position, first + j), next; p != NONE; p = next) {
+                    next = get(p, NEXT); // Stored first, as adding it to a list changes it
+                    char previous = state(p); // Stores the state, to tell if it changes
+                    int st = get(p, STATE);
+                    if (get(p, INFECTED) != 0) { // If it has been infected
+                        set(p, INFECTED, 0); // Reset the flag
+                        st = 1; // Start of infected
+                        s.infections ++;
+                    } else if (st > 0) { // Otherwise, if it is not NORMAL
+                        st ++;
+                        if (st > immunityCooldown) st = 0; // If it has reached the end of its immunity, reset to NORMAL
+                    }
+                    set(p, STATE, st);
+                    char current = st == 0 ? Main.NORMAL : st <= infectionCooldown ? Main.INFECTED : Main.IMMUNE;
+                    if (current != previous && dirty != null) mark(get(p, X), get(p, Y)); // If its state changed and the cells are being tracked, mark its cell as changed
+                    // Tallies the new state
+                    switch (current) {
+                        case Main.NORMAL -> normal ++;
+                        case Main.INFECTED -> infected ++;
+                        default -> immune ++;
+                    }
+                    if (heads[current] == NONE) heads[current] = p; // Adds it to the end of its new list
+                    else set(tails[current], NEXT, p);
+                    tails[current] = p;
+                    add(counts, first + current, 1);
+                }
+            }
+            for (int j = 0; j < 3; j++) {
+                position.set(ValueLayout.JAVA_INT, (first + j) * 4, heads[j]);
+                if (tails[j] != NONE) set(tails[j], NEXT, NONE); // Ends the list
+            }
+        }
+        count[0] += normal;
+        count[1] += infected;
+        count[2] += immune;
+    }
+
+    @Override
+    public void save(Checkpoint c) { // Saves every agent in the order they are run, the same as PersonEngine
+        int i = 0;
+        for (long list = 0; list < cells * 3; list++) {
+            for (int p = head(position, list); p != NONE; p = get(p, NEXT), i++) {
+                c.cell[i] = list / 3;
+                c.state[i] = get(p, STATE);
+            }
+        }
+        c.seeds = new long[]{random.seed};
+    }
+
+    @Override
+    public char renderedState(int x, int y) { // Given a cell, returns the state that should be rendered from the counts of its lists, with the same priority as PersonEngine
+        long first = ((long) x * s.HEIGHT + y) * 3;
+        if (head(counts, first + Main.INFECTED) > 0) return Main.INFECTED;
+        if (head(counts, first + Main.NORMAL) > 0) return Main.NORMAL;
+        if (head(counts, first + Main.IMMUNE) > 0) return Main.IMMUNE;
+        return Main.EMPTY;
+    }
+
+    @Override
+    public void close() { // Frees all of the native memory. The engine can't be used after
+        arena.close();
+    }
+}
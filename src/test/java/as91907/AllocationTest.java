@@ -0,0 +1,65 @@
+/*
+ *  AS91907.AllocationTest
+ *  Last Updated: 17/10/2026
+ *  Purpose: Checks that once warmed up, a tick of each engine allocates nothing on the heap, on the thread running it or on any thread of a ParallelEngine's pool, on both dense and sparse grids.
+ *  Measured the same way as Batch's check-allocation option, but only on those threads, so the test runner's own threads can't make it fail.
+ *  The ForkJoinPool now and then allocates a little on its own, such as when it signals for a worker, so the ticks are measured a few times and the least is checked. Anything a tick allocates would show up every time.
+ */
+
+package as91907;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.sun.management.ThreadMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.ForkJoinWorkerThread;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+public class AllocationTest {
+    private static final int TICKS = 200; // Ticks to warm up for, then to measure
+    private static final int TRIES = 3; // Number of times the ticks are measured
+
+    private static ThreadMXBean bean;
+
+    @BeforeAll
+    public static void measurable() { // Skips the tests on a JVM that can't measure allocation
+        bean = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+        Assumptions.assumeTrue(bean.isThreadAllocatedMemorySupported());
+        bean.setThreadAllocatedMemoryEnabled(true);
+    }
+
+    @ParameterizedTest(name = "{0} engine, {1} agents")
+    @CsvSource({
+            "0, 10000", "1, 10000", "2, 10000", "3, 10000", // Dense
+            "0, 200", "1, 200", "2, 200", "3, 200" // Sparse, below Engine.SPARSE_DENSITY
+    })
+    public void warmedUpTicksDontAllocate(int engine, int normal) { // The engine's number in Engine
+        Simulation s = new Simulation(128, 128, 5, 10, 0.5, new int[]{normal, normal / 100 + 1, normal / 100}, -1, 0, 7, (char) engine);
+        for (int i = 0; i < TICKS; i++) s.tick(); // Warms up, so everything is compiled and every thread has been started
+        long[] threads = threads(); // Gets the threads before measuring, as getting them allocates
+        long bytes = Long.MAX_VALUE;
+        for (int t = 0; t < TRIES && bytes > 0; t++) {
+            long before = allocated(threads);
+            for (int i = 0; i < TICKS; i++) s.tick();
+            bytes = Math.min(bytes, allocated(threads) - before);
+        }
+        s.engine.close();
+        assertEquals(0, bytes, "Bytes allocated by " + TICKS + " warmed up ticks of " + Engine.NAMES[engine]);
+    }
+
+    private static long[] threads() { // Returns the ids of this thread and of every thread of a ForkJoinPool, which ParallelEngine runs its phases on
+        return Thread.getAllStackTraces().keySet().stream()
+                .filter(t -> t == Thread.currentThread() || t instanceof ForkJoinWorkerThread)
+                .mapToLong(Thread::getId)
+                .toArray();
+    }
+
+    private static long allocated(long[] threads) { // Returns the total bytes allocated by the given threads
+        long total = 0;
+        for (long thread : threads) total += Math.max(bean.getThreadAllocatedBytes(thread), 0); // -1 if the thread has finished
+        return total;
+    }
+}
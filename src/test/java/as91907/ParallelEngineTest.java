@@ -0,0 +1,60 @@
+/*
+ *  AS91907.ParallelEngineTest
+ *  Last Updated: 17/10/2026
+ *  Purpose: Checks that a part of a ParallelEngine throwing fails the tick on the simulation's thread, rather than leaving it waiting forever, and that the simulation is still finished.
+ */
+
+package as91907;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import org.junit.jupiter.api.Test;
+
+public class ParallelEngineTest {
+    private static final Duration LIMIT = Duration.ofSeconds(10); // Far longer than a tick takes, so only waiting forever fails
+
+    private static class Broken extends ParallelEngine { // Throws while updating one of its ranges
+        private final RuntimeException failure = new IllegalStateException("Broken");
+        private boolean closed;
+        private Broken(Simulation s, int[] startingCount) {
+            super(s, startingCount);
+        }
+        @Override
+        protected int update(int from, int to, int[] count) {
+            if (from == 0) throw failure;
+            return super.update(from, to, count);
+        }
+        @Override
+        public void close() {
+            closed = true;
+        }
+    }
+
+    private static Simulation simulation(int ticks) {
+        int[] startingCount = {3000, 30, 300};
+        return new Simulation(64, 64, 5, 3, 0.5, startingCount, ticks, 0, 7, Engine.PARALLEL, null, s -> new Broken(s, startingCount));
+    }
+
+    @Test
+    public void failingPartFailsTheTick() {
+        Simulation s = simulation(-1);
+        Broken engine = (Broken) s.engine;
+        RuntimeException e = assertTimeoutPreemptively(LIMIT, () -> assertThrows(RuntimeException.class, s::tick));
+        assertSame(engine.failure, e);
+        e = assertTimeoutPreemptively(LIMIT, () -> assertThrows(RuntimeException.class, s::tick)); // The failure is cleared, so the next phase waits again as usual
+        assertSame(engine.failure, e);
+    }
+
+    @Test
+    public void failingTickFinishesTheSimulation() {
+        Simulation s = simulation(100);
+        assertTimeoutPreemptively(LIMIT, () -> assertThrows(IllegalStateException.class, s::run));
+        assertFalse(s.running);
+        assertTrue(((Broken) s.engine).closed);
+    }
+}
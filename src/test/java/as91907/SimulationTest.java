@@ -0,0 +1,70 @@
+/*
+ *  AS91907.SimulationTest
+ *  Last Updated: 17/10/2026
+ *  Purpose: Checks that abandoning a simulation that never started lets go of everything its Observers and engine hold, including the native memory of an OffHeapEngine, which the garbage collector would never free.
+ */
+
+package as91907;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import javax.management.ObjectName;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class SimulationTest {
+    @TempDir
+    Path directory;
+
+    private static Simulation simulation(char engine) {
+        return new Simulation(64, 64, 5, 3, 0.5, new int[]{3000, 30, 300}, -1, 0, 7, engine);
+    }
+
+    @Test
+    public void abandonClosesObservers() throws Exception { // The same Observers a Viewer attaches before it can fail
+        Simulation s = simulation(Engine.ARRAY);
+        File csv = directory.resolve("simulation.csv").toFile(), checkpoint = directory.resolve("simulation.checkpoint").toFile();
+        HistoryWriter writer = new HistoryWriter(s, csv);
+        s.addObserver(writer);
+        new Metrics(s, 0);
+        Checkpointer checkpointer = new Checkpointer(s, checkpoint, 60_000);
+        checkpointer.temporary = true;
+        s.addObserver(checkpointer);
+        Files.createFile(checkpoint.toPath()); // As if it had already been written
+        ObjectName name = new ObjectName("as91907:type=Simulation,id=" + s.ID);
+        assertTrue(ManagementFactory.getPlatformMBeanServer().isRegistered(name));
+
+        s.abandon();
+        assertFalse(s.running);
+        assertNull(writer.error);
+        assertTrue(Files.readString(csv.toPath()).startsWith("Current Normal,Current Infected,Current Immune"), "Titles of the CSV");
+        assertFalse(new File(csv.getPath() + ".part").exists(), "Rows after the first");
+        assertFalse(checkpoint.exists(), "Temporary checkpoint");
+        assertNull(checkpointer.error);
+        assertFalse(ManagementFactory.getPlatformMBeanServer().isRegistered(name), "Metrics");
+    }
+
+    @Test
+    public void abandonFreesOffHeapEngine() {
+        Simulation s;
+        try {
+            s = simulation(Engine.OFF_HEAP);
+        } catch (IllegalArgumentException e) { // Only built on Java 21 or newer
+            Assumptions.abort(e.getMessage());
+            return;
+        }
+        s.tick();
+        s.engine.renderedState(0, 0);
+        s.abandon();
+        assertFalse(s.running);
+        assertThrows(IllegalStateException.class, () -> s.engine.renderedState(0, 0), "The engine's memory is freed once its arena is closed");
+    }
+}
@@ -0,0 +1,56 @@
+/*
+ *  AS91907.WheelEngineTest
+ *  Last Updated: 17/10/2026
+ *  Purpose: Checks that WheelEngine gives exactly the same simulation as ArrayEngine, tick by tick and agent by agent, including starting IMMUNE agents without any immunity, and after restoring a checkpoint.
+ */
+
+package as91907;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+public class WheelEngineTest {
+    private static final int TICKS = 100;
+
+    @ParameterizedTest(name = "immunity {0}, {1} normal")
+    @CsvSource({"3, 3000", "0, 3000", "3, 100", "0, 100"}) // With and without immunity, on dense and sparse grids
+    public void sameAsArrayEngine(int immunity, int normal) {
+        Simulation array = simulation(immunity, normal, Engine.ARRAY), wheel = simulation(immunity, normal, Engine.WHEEL);
+        compare(array, wheel);
+    }
+
+    @ParameterizedTest(name = "immunity {0}, restored at tick {1}")
+    @CsvSource({"3, 0", "0, 0", "3, 37", "0, 37"})
+    public void sameAsArrayEngineRestored(int immunity, long elapsed) { // Restores both from a checkpoint of an ArrayEngine taken before its first tick, as if it were taken at a later one
+        Checkpoint c = new Checkpoint(simulation(immunity, 3000, Engine.ARRAY));
+        c.save(simulation(immunity, 3000, Engine.ARRAY));
+        c.elapsed = elapsed; // Starting IMMUNE agents are still past the end of their immunity without any, which has to be scheduled for the next update whatever the tick
+        Simulation array = new Simulation(c);
+        c.engine = Engine.WHEEL;
+        Simulation wheel = new Simulation(c);
+        compare(array, wheel);
+    }
+
+    private static Simulation simulation(int immunity, int normal, char engine) { // Starts with agents of every state, so IMMUNE agents start past the end of their immunity when there is none
+        return new Simulation(64, 64, 5, immunity, 0.5, new int[]{normal, 30, 300}, -1, 0, 7, engine);
+    }
+
+    private static void compare(Simulation array, Simulation wheel) { // Runs both, checking their counts after every tick and every agent at the end
+        for (int t = 0; t < TICKS; t++) {
+            array.tick();
+            wheel.tick();
+            assertArrayEquals(array.count, wheel.count, "Counts after tick " + array.elapsed);
+            assertEquals(array.infections, wheel.infections, "Infections after tick " + array.elapsed);
+        }
+        Checkpoint a = new Checkpoint(array), w = new Checkpoint(wheel);
+        a.save(array);
+        w.save(wheel);
+        assertArrayEquals(a.cell, w.cell, "Cells");
+        assertArrayEquals(a.state, w.state, "Internal states");
+        assertArrayEquals(a.order, w.order, "Order in each cell");
+        assertArrayEquals(a.seeds, w.seeds, "Seeds");
+    }
+}